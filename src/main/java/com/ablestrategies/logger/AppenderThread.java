@@ -1,10 +1,11 @@
 package com.ablestrategies.logger;
 
 import java.lang.reflect.Constructor;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * AppenderThread - Background thread that dequeues events and calls the Appenders.<br/>
@@ -13,13 +14,17 @@ import java.util.concurrent.LinkedBlockingDeque;
  * classpath, then add its full name (dotted package and class name without ".class")
  * to the list of appenders in the configuration. Some appenders need more configuration
  * settings as well, such as a message prefix, so refer to the documentation for the
- * corresponding appender.
+ * corresponding appender.<br/>
+ * <br/>
+ * An appender name may be followed by ":thread" or ":virtual" to run that appender on its own
+ * (platform or virtual) thread, behind its own queue, so that it cannot stall the others.
+ * (see QueuedAppender)
  * @apiNote Some of these methods run on the background thread and some on the Main thread.<br/>
  */
 public class AppenderThread extends Thread {
 
-    /** If lost-message errors occur, report the first one, then every this many, */
-    public static int ROLLUP_ERRORS = 1000;
+    /** If events are dropped (see OverflowPolicy) report them at most this often. */
+    public static long DROP_REPORT_MILLIS = 10_000;
 
     /** OUt own thread. */
     private AppenderThread appenderThread = null;
@@ -30,14 +35,50 @@ public class AppenderThread extends Thread {
     /** Pending statup errors to report once the logger is up-and-running. */
     private final StringBuffer startupErrors = new StringBuffer();
 
+    /** Default number of slots in the ring buffer. */
+    public static int QUEUE_CAPACITY = 8192;
+
     /** Here's a holding-tank for log events passed to this thread. */
-    private final BlockingQueue<LogEvent> blockingQueue;
+    private final EventRingBuffer ringBuffer;
+
+    /** Default maximum number of events to be taken from the ring buffer at once. */
+    public static int BATCH_SIZE = 256;
+
+    /** Events taken from the ring buffer, plus already-appended spares to be swapped in for the next ones. */
+    private final LogEvent[] batch;
+
+    /** List view of batch, so that (the taken part of) it can be handed to the appenders. */
+    private final List<LogEvent> batchList;
+
+    /** How to wait when the ring buffer is empty. */
+    private final WaitStrategy waitStrategy;
+
+    /** True if any appender outputs the caller's class or method. */
+    private final boolean callerInfoNeeded;
+
+    /** What to do when the ring buffer is full. */
+    private final OverflowPolicy overflowPolicy;
+
+    /** Default number of formatting worker threads, zero to format on this thread. (see FormattingStage) */
+    public static int FORMAT_WORKERS = 0;
+
+    /** Formats batches in parallel before they are appended, or null if disabled. */
+    private final FormattingStage formattingStage;
+
+    /** Dropped event counts, indexed by Level value, as of the last drop report. */
+    private final long[] reportedDropCounts = new long[Level.Error.getValue() + 1];
+
+    /** Total dropped event count as of the last drop report. */
+    private long reportedDropTotal = 0;
+
+    /** When the last drop report was written. */
+    private long lastDropReportMillis = 0;
 
-    /** Keep track of the count of lost-message errors. */
-    private int errorCount = ROLLUP_ERRORS - 1;
+    /** How long the shutdown hook waits for this thread to drain the ring buffer and exit. */
+    public static long SHUTDOWN_WAIT_MILLIS = 5_000;
 
     /** Used for controlled shut-down. */
-    private boolean exitThread = false;
+    private volatile boolean exitThread = false;
 
     /** Is the app shutting down? */
     private boolean shutdownInProgress = false;
@@ -49,7 +90,19 @@ public class AppenderThread extends Thread {
     public AppenderThread(IConfiguration configuration) {
         setName("JLogger-Appenders");
         populateAppenderMap(configuration);
-        blockingQueue = new LinkedBlockingDeque<>();
+        callerInfoNeeded = appenders.values().stream().anyMatch(IAppender::isCallerInfoNeeded);
+        int capacity = (int)configuration.getLong("jlogger.queue.capacity", QUEUE_CAPACITY);
+        overflowPolicy = OverflowPolicy.fromName(configuration.getString("jlogger.queue.overflow", "Block"));
+        Level dropBelowLevel = Level.fromName(configuration.getString("jlogger.queue.droplevel", "Info"));
+        ringBuffer = new EventRingBuffer(capacity, overflowPolicy, dropBelowLevel);
+        waitStrategy = WaitStrategy.fromName(configuration.getString("jlogger.queue.wait", "Blocking"));
+        batch = new LogEvent[(int)Math.max(1, configuration.getLong("jlogger.queue.batchsize", BATCH_SIZE))];
+        for(int index = 0; index < batch.length; index++) {
+            batch[index] = new LogEvent();
+        }
+        batchList = Arrays.asList(batch);
+        int formatWorkers = (int)configuration.getLong("jlogger.format.workers", FORMAT_WORKERS);
+        formattingStage = formatWorkers > 0 ? new FormattingStage(formatWorkers) : null;
         appenderThread = this;
     }
 
@@ -62,58 +115,218 @@ public class AppenderThread extends Thread {
         // First, log any errors that occurred during startup.
         appenderThread = this;
         if(!startupErrors.isEmpty()) {
-            LogEvent event = new LogEvent(Level.Warn, startupErrors.toString());
-            blockingQueue.add(event);
+            appendEvent(new LogEvent(Level.Warn, startupErrors.toString()));
         }
         hookShutdown();
         // Appender loop
+        int idleCount = 0;
         while(!interrupted() && !exitThread) {
-            if(blockingQueue.isEmpty() && !shutdownInProgress) {
-                wait100ms();
-                continue;
-            }
-            try {
-                LogEvent event = blockingQueue.take();
-                writeToAppenders(event);
-            } catch (InterruptedException e) {
-                // will terminate "while" loop
+            if(takeAndWriteToAppenders() > 0) {
+                idleCount = 0;
+            } else {
+                reportDroppedEvents();
+                long reportDelayNanos = nanosUntilDropReport();
+                if(reportDelayNanos > 0 && waitStrategy == WaitStrategy.Blocking) {
+                    ringBuffer.awaitPublished(reportDelayNanos); // there may be no more events to wake us for it
+                } else {
+                    waitStrategy.idle(ringBuffer, idleCount++);
+                }
             }
         }
+        drainOnExit();
         interrupt();
     }
 
+    /**
+     * Write whatever is left in the ring buffer, then any pending dropped events report, then a shutdown notice.
+     * @implNote Called only by the Appender thread, once told to exit, so the ring buffer still has one consumer.
+     */
+    private void drainOnExit() {
+        int eventsDrained = 0;
+        int eventsWritten = 1;
+        while(eventsWritten > 0) {
+            eventsWritten = takeAndWriteToAppenders();
+            eventsDrained += eventsWritten;
+        }
+        lastDropReportMillis = 0;
+        reportDroppedEvents();
+        // Straight to the appenders, as nothing would take it from a (maybe full) ring buffer now
+        writeToAppenders(new LogEvent(false, Level.Trace,
+                "Logger shutting down after dequeuing " + eventsDrained + " events", null));
+    }
+
+    /**
+     * Take a batch of events from the ring buffer, if there are any, and write them to the appenders.
+     * @return number of events written, zero if there were none.
+     * @implNote Called only by the Appender thread.
+     */
+    private int takeAndWriteToAppenders() {
+        int count = ringBuffer.takeBatch(batch, batch.length);
+        if(count > 0) {
+            writeToAppenders(batchList.subList(0, count));
+        }
+        for(int index = 0; index < count; index++) {
+            batch[index].release(); // it is now a spare, for the next takeBatch()
+        }
+        if(ringBuffer.getDroppedTotal() != reportedDropTotal) {
+            reportDroppedEvents();
+        }
+        return count;
+    }
+
+    /**
+     * Write a Warn event that says how many events have been dropped per Level, if any, since
+     * the last such report. (at most once per DROP_REPORT_MILLIS)
+     * @implNote Called only by the Appender thread.
+     */
+    private void reportDroppedEvents() {
+        long droppedTotal = ringBuffer.getDroppedTotal();
+        long now = System.currentTimeMillis();
+        if(droppedTotal == reportedDropTotal || now - lastDropReportMillis < DROP_REPORT_MILLIS) {
+            return;
+        }
+        StringBuilder report = new StringBuilder("JLogger queue full (")
+                .append(overflowPolicy.name()).append("), dropped ")
+                .append(droppedTotal - reportedDropTotal).append(" events:");
+        for(Level level : Level.values()) {
+            long droppedCount = ringBuffer.getDroppedCount(level);
+            report.append(" ").append(level.name()).append("=").append(droppedCount - reportedDropCounts[level.getValue()]);
+            reportedDropCounts[level.getValue()] = droppedCount;
+        }
+        reportedDropTotal = droppedTotal;
+        lastDropReportMillis = now;
+        writeToAppenders(new LogEvent(false, Level.Warn, report.toString(), null));
+    }
+
+    /**
+     * How long until the pending dropped events report is due?
+     * @return Nanoseconds until it is due, or zero if there is nothing to report.
+     * @implNote Called only by the Appender thread.
+     */
+    private long nanosUntilDropReport() {
+        if(ringBuffer.getDroppedTotal() == reportedDropTotal) {
+            return 0;
+        }
+        long millis = lastDropReportMillis + DROP_REPORT_MILLIS - System.currentTimeMillis();
+        return Math.max(1, millis) * 1_000_000L;
+    }
+
     /**
      * Do the actual logging by calling the appenders, runs on Appender thread.
      * @param event to be logged.
      * @implNote Called only by the Appender thread.
      */
     private void writeToAppenders(LogEvent event) {
+        event.resolveDeferred();
+        if(overflowPolicy == OverflowPolicy.CallerRuns) {
+            synchronized (appenders) { // other threads may be appending too (see publishEvent)
+                writeToEachAppender(event);
+            }
+        } else {
+            writeToEachAppender(event);
+        }
+    }
+
+    /**
+     * Do the actual logging of a batch by passing it to each of the appenders, runs on Appender thread.
+     * @param events to be logged, in order.
+     * @implNote Called only by the Appender thread.
+     */
+    private void writeToAppenders(List<LogEvent> events) {
+        for(LogEvent event : events) {
+            event.resolveDeferred();
+        }
+        if(formattingStage != null) {
+            try {
+                formattingStage.prepare(events, appenders.values());
+            } catch (RuntimeException e) {
+                // not fatal, the appenders will just format the events themselves
+                Support.handleLoggerError(false, "FormattingStage failed, appending unprepared", e);
+            }
+        }
+        if(overflowPolicy == OverflowPolicy.CallerRuns) {
+            synchronized (appenders) { // other threads may be appending too (see publishEvent)
+                writeToEachAppender(events);
+            }
+        } else {
+            writeToEachAppender(events);
+        }
+    }
+
+    /**
+     * Call each of the appenders.
+     * @param event to be logged.
+     */
+    private void writeToEachAppender(LogEvent event) {
         for(Map.Entry<String, IAppender> entry : appenders.entrySet()) {
             IAppender appender = entry.getValue();
             appender.append(event);
         }
     }
 
+    /**
+     * Call each of the appenders with a batch.
+     * @param events to be logged, in order.
+     */
+    private void writeToEachAppender(List<LogEvent> events) {
+        for(Map.Entry<String, IAppender> entry : appenders.entrySet()) {
+            IAppender appender = entry.getValue();
+            appender.appendBatch(events);
+        }
+    }
+
     //////////////////// The following methods run on other threads /////////////////////
 
     /**
-     * Append an event to the queue.
+     * Claim a re-usable event from the queue, to be populated and then passed to publishEvent().
+     * @param level Level of the event to be populated, in case the queue is full. (see OverflowPolicy)
+     * @return The event to be populated (the caller must publish it, soon), or null if it is to be dropped.
+     * @implNote Called by other threads, not the Appender thread.
+     */
+    LogEvent claimEvent(Level level) {
+        return ringBuffer.claim(level);
+    }
+
+    /**
+     * Publish an event that was claimed with claimEvent() and has been populated.
+     * @param event To be enqueued. (or, if the queue was full, written now, per OverflowPolicy.CallerRuns)
+     * @implNote Called by other threads, not the Appender thread.
+     */
+    void publishEvent(LogEvent event) {
+        if(!ringBuffer.publish(event)) {
+            writeToAppenders(event);
+        }
+    }
+
+    /**
+     * Append (a copy of) an event to the queue.
      * @param event To be enqueued.
      * @implNote Called by other threads, not the Appender thread.
      */
     public void appendEvent(LogEvent event) {
-        try {
-            blockingQueue.put(event);
-        } catch (InterruptedException e) {
-            if(++errorCount >= ROLLUP_ERRORS) {
-                System.err.println("\n\nJLogger AppenderThread Failure\n");
-                errorCount = 0;
-            }
+        LogEvent slot = claimEvent(event.level);
+        if(slot != null) {
+            slot.copyFrom(event);
+            publishEvent(slot);
         }
     }
 
+    /**
+     * Do any of the appenders output the caller's class or method?
+     * @return true if LogEvents must capture their caller.
+     * @implNote Called by other threads, not the Appender thread.
+     */
+    public boolean isCallerInfoNeeded() {
+        return callerInfoNeeded;
+    }
+
+    /**
+     * Tell the Appender thread to drain the ring buffer and exit.
+     * @implNote Called by other threads, not the Appender thread.
+     */
     public void triggerExit() {
         this.exitThread = true;
+        LockSupport.unpark(this); // in case it is asleep, per WaitStrategy.Blocking
     }
 
     /**
@@ -141,20 +354,39 @@ public class AppenderThread extends Thread {
     /**
      * Add an Appender to the appenders map.
      * @param configuration Provided settings.
-     * @param className Name of Appender class to be added.
+     * @param className Name of Appender class to be added, optionally followed by ":thread" or ":virtual".
      * @throws Exception If appender cannot be found, lacks permission, is not an IAppender, etc.
      * @implNote Called by other threads, not the Appender thread.
      */
     @SuppressWarnings("unchecked")
     private void addAppenderToMap(IConfiguration configuration, String className)
             throws Exception {
+        String threading = "";
+        if(className.contains(":")) {
+            threading = className.substring(className.indexOf(":") + 1).trim();
+            className = className.substring(0, className.indexOf(":")).trim();
+        }
         Class<?> clazz = Thread.currentThread().getContextClassLoader().loadClass(className);
         Class<?>[] params = new Class[]{IConfiguration.class};
         Constructor<IAppender> ctor = (Constructor<IAppender>) clazz.getConstructor(params);
         IAppender appender = ctor.newInstance(configuration);
+        if(threading.equalsIgnoreCase("thread") || threading.equalsIgnoreCase("virtual")) {
+            appender = new QueuedAppender(configuration, appender, threading.equalsIgnoreCase("virtual"));
+        } else if(!threading.isEmpty()) {
+            startupErrors.append("\n").append("Unknown appender threading: ").append(threading);
+        }
         appenders.put(className, appender);
     }
 
+    /**
+     * Get one of the appenders.
+     * @param className Full name of the Appender class. (without ":thread", etc.)
+     * @return The appender (a QueuedAppender if it runs on its own thread) or null if there is no such appender.
+     */
+    public IAppender getAppender(String className) {
+        return appenders.get(className);
+    }
+
     /**
      * Shutdown Hook
      * Flush the queue - write events to Appenders before allowing app to exit.
@@ -169,22 +401,22 @@ public class AppenderThread extends Thread {
             }
             wait100ms(); // Wait for the dequeue to be consumed
             appenderThread.triggerExit();
-            appenderThread.interrupt();
-            appendEvent(new LogEvent(Level.Trace,
-                    "Logger shutting down after dequeuing " + blockingQueue.size() + " events"));
-            while(!blockingQueue.isEmpty()) {
-                try {
-                    LogEvent event = blockingQueue.take();
-                    writeToAppenders(event);
-                } catch (InterruptedException e) {
-                    Support.handleLoggerError(false, "AppenderThread interrupted", null);
-                    Thread.yield();
-                }
+            try {
+                appenderThread.join(SHUTDOWN_WAIT_MILLIS); // it drains the ring buffer before exiting
+            } catch (InterruptedException e) {
+                Support.handleLoggerError(false, "AppenderThread interrupted", null);
+            }
+            if(appenderThread.isAlive()) { // stuck in an appender, so the ring buffer is still its own
+                Support.handleLoggerError(false, "AppenderThread still busy at shutdown, " +
+                        ringBuffer.size() + " events not written", null);
             }
             for(Map.Entry<String, IAppender> entry : appenders.entrySet()) {
                 IAppender appender = entry.getValue();
                 appender.close();
             }
+            if(formattingStage != null) {
+                formattingStage.close();
+            }
         }));
     }
 
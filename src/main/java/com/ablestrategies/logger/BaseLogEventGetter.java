@@ -6,7 +6,7 @@ package com.ablestrategies.logger;
 public class BaseLogEventGetter {
 
     /** LogEvent to "get" the requested fields from. */
-    protected final LogEvent event;
+    protected LogEvent event;
 
     /**
      * Ctor.
@@ -16,6 +16,17 @@ public class BaseLogEventGetter {
         this.event = event;
     }
 
+    /**
+     * Re-target this getter at another LogEvent, so that a formatter can re-use one per thread.
+     * @param event LogEvent to "get" the requested fields from.
+     * @return The LogEvent that this got fields from before. (so that a nested caller can restore it)
+     */
+    LogEvent setEvent(LogEvent event) {
+        LogEvent previous = this.event;
+        this.event = event;
+        return previous;
+    }
+
     /**
      * Get the message level.
      * @return Priority/severity Level
@@ -38,12 +49,44 @@ public class BaseLogEventGetter {
      * @return The argument as an Object. (primitives will be boxed.)
      */
     protected Object getArgumentAsObject(int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) != LogEvent.NOT_PRIMITIVE) {
+            long value = getPrimitiveArgumentValue(oneBasedIndex);
+            return switch (getPrimitiveArgumentType(oneBasedIndex)) {
+                case LogEvent.LONG_ARG -> Long.valueOf(value);
+                case LogEvent.DOUBLE_ARG -> Double.valueOf(Double.longBitsToDouble(value));
+                case LogEvent.CHAR_ARG -> Character.valueOf((char)value);
+                case LogEvent.FLOAT_ARG -> Float.valueOf(Float.intBitsToFloat((int)value));
+                default -> Boolean.valueOf(value != 0);
+            };
+        }
         if(event.arguments == null || oneBasedIndex > event.arguments.length) {
             return null;
         }
         return event.arguments[oneBasedIndex - 1];
     }
 
+    /**
+     * Get the type of an argument that was passed as a primitive, and so is stored unboxed.
+     * @param oneBasedIndex Varargs index, where the first argument is arg 1.
+     * @return LogEvent.LONG_ARG, DOUBLE_ARG, etc., or NOT_PRIMITIVE if it is an Object (or missing).
+     */
+    protected byte getPrimitiveArgumentType(int oneBasedIndex) {
+        if(oneBasedIndex < 1 || oneBasedIndex > event.primitiveCount) {
+            return LogEvent.NOT_PRIMITIVE;
+        }
+        return event.primitiveTypes[oneBasedIndex - 1];
+    }
+
+    /**
+     * Get the value of an argument that was passed as a primitive.
+     * @param oneBasedIndex Varargs index, where the first argument is arg 1.
+     * @return The value, as a long. (doubles and floats as raw bits, booleans as 1 or 0)
+     * @apiNote Check getPrimitiveArgumentType() first.
+     */
+    protected long getPrimitiveArgumentValue(int oneBasedIndex) {
+        return event.primitiveValues[oneBasedIndex - 1];
+    }
+
     /**
      * Get the thread name.
      * @return Name of the thread that the Logger was called from.
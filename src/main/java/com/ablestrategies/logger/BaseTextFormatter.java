@@ -2,11 +2,16 @@ package com.ablestrategies.logger;
 
 /**
  * In order to improve performance, the same formatted message will be re-used by multiple
- * formatters when appropriate. Formatters that intend to to this should have the following
- * first and last lines in their format() method:
+ * formatters when appropriate. Formatters that intend to to this should register their
+ * signature once, in their ctor, and then have the following first and last lines in their
+ * format() method:
  * <code>
+ *   public XxxTextFormatter(String prefix, int recursionDepth) {
+ *       registerSignature(prefix, Integer.toString(recursionDepth));
+ *       ...
+ *   }
  *   public String format(LogEvent event) {
- *       String cache = getCachedResultIfPresent(this, prefix, recursionDepth.toString(), event);
+ *       String cache = getCachedResultIfPresent(event);
  *       if(cache != null) {
  *           return cache;
  *       }
@@ -16,24 +21,53 @@ package com.ablestrategies.logger;
  *       cacheResult(event, result);
  *   }
  * </code>
+ * Formatters with the same signature (class, prefix, and settings) share a slot, so the
+ * lookup is just an array load. (see LogManager.registerFormatter) There are only a few slots,
+ * so a formatter should call releaseSignature() when it is closed.
  */
 public class BaseTextFormatter {
 
-    /** TextFormatter class name ":" prefix ":" format settings. */
-    private String formatterSignature;
+    /** Slot of our signature in each event's formatters cache, or -1 if not cached. */
+    private int cacheSlot = -1;
+
+    /** Our signature, as registered. */
+    private String signature;
 
     /**
-     * Get a previously cached message, already formatted.
-     * @param formatterImpl The XxxTextFormatter class.
+     * Register this formatter's signature, so that its results can be cached and shared.
      * @param prefix The prefix for messages.
      * @param settings Any other settings that affect the message format, as concatenated strings.
+     */
+    protected void registerSignature(String prefix, String settings) {
+        signature = getClass().getName() + ":" + prefix + ":" + settings;
+        cacheSlot = LogManager.registerFormatter(signature);
+    }
+
+    /**
+     * Release this formatter's slot, so that it can be re-used. Results are no longer cached after this.
+     */
+    protected void releaseSignature() {
+        if(cacheSlot >= 0) {
+            cacheSlot = -1;
+            LogManager.unregisterFormatter(signature);
+        }
+    }
+
+    /**
+     * Get a previously cached message, already formatted.
      * @param event The event that might have a cached message.
      * @return The cached message, already formatted, or null if there was none.
      */
-    protected String getCachedResultIfPresent(
-            BaseTextFormatter formatterImpl, String prefix, String settings, LogEvent event) {
-        formatterSignature = formatterImpl.getClass().getName() + ":" + prefix + ":" + settings;
-        return event.getFormattersCache(formatterSignature);
+    protected String getCachedResultIfPresent(LogEvent event) {
+        return event.getFormattersCache(cacheSlot);
+    }
+
+    /**
+     * Find out whether another formatter has the same signature, i.e. whether a cached result would be re-used.
+     * @return true if the result is worth caching even when that takes an extra String.
+     */
+    protected boolean isSignatureShared() {
+        return LogManager.isFormatterSlotShared(cacheSlot);
     }
 
     /**
@@ -42,7 +76,7 @@ public class BaseTextFormatter {
      * @param result The formatted message to be cached/
      */
     protected void cacheResult(LogEvent event, String result) {
-        event.putFormattersCache(formatterSignature, result);
+        event.putFormattersCache(cacheSlot, result);
     }
 
 }
@@ -0,0 +1,75 @@
+package com.ablestrategies.logger;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * CoarseClock - Reads the system clock once per tick, on a ticker thread, so that events just read a field.
+ * <p/>
+ * Timestamps are then only as precise as the tick, and events within the same tick get the same timestamp.
+ * (Their order is still kept, per the queue.)
+ * <p/>
+ * The default tick is 10 ms, which is about the resolution of the system timer on Windows anyway. That trades
+ * accuracy for cost: a timestamp may be up to one tick (plus scheduling delay) behind the actual time, @n has
+ * no meaningful digits below the tick, and the time between two events cannot be measured from their timestamps
+ * if it is shorter than a tick. In exchange the ticker wakes up 100 times a second instead of 1000. Where that
+ * accuracy matters, set "jlogger.clock.tickmillis" to 1, or use the SystemClock.
+ */
+public class CoarseClock implements IClock, Runnable {
+
+    /** Default milliseconds between ticks, and so the accuracy of timestamps. (see "jlogger.clock.tickmillis") */
+    public static long TICK_MILLIS = 10;
+
+    /** Reads the actual time. */
+    private final IClock systemClock = new SystemClock();
+
+    /** Nanoseconds between ticks. */
+    private final long tickNanos;
+
+    /** The ticker thread. */
+    private final Thread thread;
+
+    /** The time, as of the last tick. */
+    private volatile long now;
+
+    /** Used for controlled shut-down. */
+    private volatile boolean exitThread = false;
+
+    /**
+     * Ctor.
+     * @param tickMillis Milliseconds between ticks.
+     */
+    public CoarseClock(long tickMillis) {
+        tickNanos = Math.max(1, tickMillis) * 1_000_000L;
+        now = systemClock.epochNanos();
+        thread = new Thread(this, "JLogger-Clock");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Ticker loop.
+     */
+    public void run() {
+        while(!exitThread) {
+            LockSupport.parkNanos(tickNanos);
+            now = systemClock.epochNanos();
+        }
+    }
+
+    /**
+     * Get the time as of the last tick.
+     * @return Nanoseconds since 1970-01-01T00:00:00Z.
+     */
+    public long epochNanos() {
+        return now;
+    }
+
+    /**
+     * Stop the ticker thread. The time then stays as of the last tick.
+     */
+    public void close() {
+        exitThread = true;
+        LockSupport.unpark(thread);
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.ablestrategies.logger;
 
+import java.util.List;
+
 /**
  * ConsoleAppender - Log writer that outputs events in textual form to System.err.
  */
@@ -8,6 +10,9 @@ public class ConsoleAppender implements IAppender {
     /** We need this to format LogEvents into textual messages. */
     private final TextFormatter textFormatter;
 
+    /** Re-usable buffer for formatting a batch of LogEvents. */
+    private final StringBuilder batchBuffer = new StringBuilder(4096);
+
     /**
      * Ctor.
      * @param configuration Source of settings.
@@ -25,6 +30,36 @@ public class ConsoleAppender implements IAppender {
         System.err.println(textFormatter.format(logEvent));
     }
 
+    /**
+     * Append (output) a batch of LogEvents, with one write.
+     * @param logEvents To be written to the log/err.
+     */
+    public void appendBatch(List<LogEvent> logEvents) {
+        batchBuffer.setLength(0);
+        for(LogEvent logEvent : logEvents) {
+            textFormatter.formatTo(logEvent, batchBuffer);
+            batchBuffer.append(System.lineSeparator());
+        }
+        System.err.print(batchBuffer);
+    }
+
+    /**
+     * Format a LogEvent ahead of append(), caching the result in it.
+     * @param logEvent To be formatted.
+     * @implNote Called by a FormattingStage worker, if any.
+     */
+    public void prepare(LogEvent logEvent) {
+        textFormatter.format(logEvent);
+    }
+
+    /**
+     * Does our prefix output the calling class or method?
+     * @return true if LogEvents must capture their caller.
+     */
+    public boolean isCallerInfoNeeded() {
+        return textFormatter.isCallerInfoNeeded();
+    }
+
     /**
      * Notification that the app is shutting down, giving time to flush before close() is called.
      */
@@ -36,7 +71,7 @@ public class ConsoleAppender implements IAppender {
      * This will be called after the last log message has been written.
      */
     public void close() {
-        // not needed for this
+        textFormatter.close();
     }
 
 }
@@ -0,0 +1,53 @@
+package com.ablestrategies.logger;
+
+import java.util.function.Supplier;
+
+/**
+ * DeferredSupplier - Marks a Supplier to be called on the AppenderThread, rather than the caller's thread.
+ * <p/>
+ * Create one with Logger.defer(), then pass it as a message or argument...
+ * <ul>
+ *  <li> logger.DIAG("Cache: @1t", Logger.defer(cache::snapshot)); </li>
+ *  <li> logger.DIAG(Logger.defer(() -> "Cache: " + cache.snapshot())); </li>
+ * </ul>
+ * It is only called if the event passes the Level check, and then it is called just before
+ * the appenders run, so the caller does not pay for it. However, whatever it reads may have
+ * changed by then, and it must be safe to call from another thread.
+ * A deferred message always captures the caller (a stack walk) as it may turn out to use @c, @m, or @p.
+ * @param <T> Type of the supplied value.
+ */
+public final class DeferredSupplier<T> implements Supplier<T> {
+
+    /** The Supplier to be called. */
+    private final Supplier<T> supplier;
+
+    /**
+     * Ctor.
+     * @param supplier The Supplier to be called on the AppenderThread.
+     */
+    DeferredSupplier(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Call the Supplier.
+     * @return The supplied value.
+     */
+    public T get() {
+        return supplier.get();
+    }
+
+    /**
+     * Call the Supplier, catching anything it throws.
+     * @return The supplied value, or if the Supplier threw an exception then that exception.
+     * @implNote Called by the AppenderThread. (or the caller, per OverflowPolicy.CallerRuns)
+     */
+    Object resolve() {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+}
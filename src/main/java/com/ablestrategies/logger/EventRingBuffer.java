@@ -0,0 +1,338 @@
+package com.ablestrategies.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventRingBuffer - Preallocated, multi-producer/single-consumer ring of re-usable LogEvents.
+ * <p/>
+ * Producers (application threads) claim a slot, populate the LogEvent in that slot in place,
+ * and then publish it. The consumer (AppenderThread) takes published events in sequence.
+ * Nothing is allocated per event and producers never take a lock, they only contend on one
+ * compare-and-set of the claim sequence.
+ * <p/>
+ * Each slot has its own sequence number, which says what state the slot is in...
+ * <ul>
+ *  <li> sequence == n: The slot is free to be claimed as position n. </li>
+ *  <li> sequence == n + 1: The event for position n has been published. </li>
+ * </ul>
+ * When the consumer takes an event it swaps a spare (already appended) LogEvent into the slot,
+ * so the slot can be re-claimed right away, even while the taken event is still being appended.
+ * <p/>
+ * The ring is bounded, so when it is full, claim() follows the OverflowPolicy. Producers
+ * may then drop the new event, or "take" (evict) the oldest one, and those drops are counted.
+ * @implNote The consumer methods (take) must only be called by one thread at a time.
+ */
+class EventRingBuffer {
+
+    /** LogEvent.sequence of an event that was not claimed from the ring. (see CallerRuns) */
+    static final long UNQUEUED = -1;
+
+    /** The re-usable events, one per slot. */
+    private final LogEvent[] slots;
+
+    /** The sequence number of each slot. See class description. */
+    private final AtomicLongArray sequences;
+
+    /** Capacity - 1, for converting sequence numbers to slot indexes. (capacity is a power of 2) */
+    private final int mask;
+
+    /** Next position to be claimed by a producer. */
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    /** Next position to be taken by the consumer. (or evicted by a producer, per DropOldest) */
+    private final AtomicLong takeSequence = new AtomicLong();
+
+    /** What to do when the ring is full. */
+    private final OverflowPolicy overflowPolicy;
+
+    /** For OverflowPolicy.DropBelowLevel, events below this Level are dropped when the ring is full. */
+    private final Level dropBelowLevel;
+
+    /** Count of dropped events, indexed by Level value. */
+    private final AtomicLongArray droppedCounts = new AtomicLongArray(Level.Error.getValue() + 1);
+
+    /** Count of dropped events, all Levels. */
+    private final AtomicLong droppedTotal = new AtomicLong();
+
+    /** The consumer thread, if it is asleep waiting for a publish(), else null. (see WaitStrategy.Blocking) */
+    private volatile Thread sleepingConsumer = null;
+
+    /**
+     * Ctor.
+     * @param requestedCapacity Number of slots, will be rounded up to a power of 2.
+     */
+    EventRingBuffer(int requestedCapacity) {
+        this(requestedCapacity, OverflowPolicy.Block, Level.Trace);
+    }
+
+    /**
+     * Ctor.
+     * @param requestedCapacity Number of slots, will be rounded up to a power of 2.
+     * @param overflowPolicy What to do when the ring is full.
+     * @param dropBelowLevel For OverflowPolicy.DropBelowLevel, the lowest Level that is not dropped.
+     */
+    EventRingBuffer(int requestedCapacity, OverflowPolicy overflowPolicy, Level dropBelowLevel) {
+        this.overflowPolicy = overflowPolicy;
+        this.dropBelowLevel = dropBelowLevel;
+        int capacity = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+        slots = new LogEvent[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for(int index = 0; index < capacity; index++) {
+            slots[index] = new LogEvent();
+            sequences.set(index, index);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Claim the next slot, following the OverflowPolicy if the ring is full.
+     * @param level Level of the event that will be populated.
+     * @return The LogEvent to be populated, and then published, or null if the event is to be dropped.
+     * @implNote Called by producers, not the consumer thread.
+     */
+    LogEvent claim(Level level) {
+        LogEvent event = tryClaim();
+        if(event != null) {
+            return event;
+        }
+        return switch(overflowPolicy) {
+            case DropNewest -> dropped(level);
+            case DropBelowLevel -> level.getValue() < dropBelowLevel.getValue() ? dropped(level) : claimOrWait(level);
+            case DropOldest -> claimOrEvict();
+            case CallerRuns -> unqueuedEvent();
+            default -> claimOrWait(level);
+        };
+    }
+
+    /**
+     * Count a dropped event.
+     * @param level Level of the dropped event.
+     * @return null, as there is no LogEvent to be populated.
+     */
+    private LogEvent dropped(Level level) {
+        droppedCounts.incrementAndGet(level.getValue());
+        droppedTotal.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Get a new LogEvent that is not in the ring, to be appended on the producer's thread.
+     * @return The LogEvent to be populated.
+     */
+    private LogEvent unqueuedEvent() {
+        LogEvent event = new LogEvent();
+        event.sequence = UNQUEUED;
+        return event;
+    }
+
+    /**
+     * Wait for the consumer to make room, then claim the next slot.
+     * @param level Level of the event that will be populated.
+     * @return The LogEvent to be populated, or null if the producer was interrupted.
+     */
+    private LogEvent claimOrWait(Level level) {
+        LogEvent event = tryClaim();
+        for(int attempts = 1; event == null; attempts++) {
+            if(Thread.currentThread().isInterrupted()) {
+                return dropped(level);
+            }
+            if(attempts < 100) {
+                Thread.yield(); // the consumer or a preempted producer may need our CPU
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+            event = tryClaim();
+        }
+        return event;
+    }
+
+    /**
+     * Evict (drop) the oldest events until the next slot can be claimed.
+     * @return The LogEvent to be populated.
+     */
+    private LogEvent claimOrEvict() {
+        LogEvent event = tryClaim();
+        while(event == null) {
+            Level evictedLevel = evictOldest();
+            if(evictedLevel != null) {
+                dropped(evictedLevel);
+            } else {
+                Thread.yield(); // the oldest event is being taken, or not yet published
+            }
+            event = tryClaim();
+        }
+        return event;
+    }
+
+    /**
+     * Discard the oldest event in the ring, if it has been published.
+     * @return Level of the evicted event, or null if nothing was evicted.
+     */
+    private Level evictOldest() {
+        long position = takeSequence.get();
+        int index = (int)position & mask;
+        if(sequences.get(index) != position + 1 || !takeSequence.compareAndSet(position, position + 1)) {
+            return null;
+        }
+        LogEvent event = slots[index];
+        Level level = event.level;
+        event.release();
+        sequences.set(index, position + slots.length);
+        return level;
+    }
+
+    /**
+     * Claim the next slot unless the ring is full.
+     * @return The LogEvent to be populated and then published, or null if the ring is full.
+     * @implNote Called by producers, not the consumer thread.
+     */
+    LogEvent tryClaim() {
+        long position = claimSequence.get();
+        while(true) {
+            int index = (int)position & mask;
+            long difference = sequences.get(index) - position;
+            if(difference == 0) {
+                if(claimSequence.compareAndSet(position, position + 1)) {
+                    LogEvent event = slots[index];
+                    event.sequence = position;
+                    return event;
+                }
+                position = claimSequence.get();
+            } else if(difference < 0) {
+                return null; // the consumer has not yet taken the event that was here
+            } else {
+                position = claimSequence.get(); // another producer got it first
+            }
+        }
+    }
+
+    /**
+     * Publish a claimed event, making it available to the consumer.
+     * @param event As returned by claim(), now populated.
+     * @return true if published, false if the event was not queued (per CallerRuns) and must be appended now.
+     * @implNote Called by producers, not the consumer thread.
+     */
+    boolean publish(LogEvent event) {
+        if(event.sequence == UNQUEUED) {
+            return false;
+        }
+        sequences.set((int)event.sequence & mask, event.sequence + 1);
+        Thread consumer = sleepingConsumer;
+        if(consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Sleep until an event is published, or the consumer thread is interrupted.
+     * @implNote Called by the consumer thread only. (per WaitStrategy.Blocking)
+     */
+    void awaitPublished() {
+        awaitPublished(0);
+    }
+
+    /**
+     * Sleep until an event is published, the consumer thread is interrupted, or a timeout expires.
+     * @param timeoutNanos Longest time to sleep, or zero for no limit.
+     * @implNote Called by the consumer thread only. (per WaitStrategy.Blocking)
+     */
+    void awaitPublished(long timeoutNanos) {
+        sleepingConsumer = Thread.currentThread();
+        long position = takeSequence.get();
+        if(sequences.get((int)position & mask) != position + 1) { // check again, now that producers will wake us
+            if(timeoutNanos > 0) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        sleepingConsumer = null;
+    }
+
+    /**
+     * Take as many published events as are available, up to a limit.
+     * @param batch (in) Spare LogEvents, no longer in use, to be put into emptied slots.
+     *              (out) The events that were taken, starting at index 0. The rest are still spares.
+     * @param maxEvents Most events to be taken, no more than batch.length.
+     * @return Number of events taken, zero if there were none.
+     * @implNote Called by the consumer thread only.
+     */
+    int takeBatch(LogEvent[] batch, int maxEvents) {
+        int count = 0;
+        while(count < maxEvents) {
+            LogEvent event = take(batch[count]);
+            if(event == null) {
+                break;
+            }
+            batch[count++] = event;
+        }
+        return count;
+    }
+
+    /**
+     * Take the next published event, if there is one.
+     * @param spare A LogEvent that is no longer in use, to be put into the emptied slot.
+     * @return The next event, or null if there is none. (in which case spare was not used)
+     * @implNote Called by the consumer thread only.
+     */
+    LogEvent take(LogEvent spare) {
+        while(true) {
+            long position = takeSequence.get();
+            int index = (int)position & mask;
+            if(sequences.get(index) != position + 1) {
+                return null; // not yet published
+            }
+            if(takeSequence.compareAndSet(position, position + 1)) { // else it was evicted, per DropOldest
+                LogEvent event = slots[index];
+                slots[index] = spare;
+                sequences.set(index, position + slots.length);
+                return event;
+            }
+        }
+    }
+
+    /**
+     * Get the number of events that have been dropped.
+     * @param level Level of the dropped events.
+     * @return Count since the ring was created.
+     */
+    long getDroppedCount(Level level) {
+        return droppedCounts.get(level.getValue());
+    }
+
+    /**
+     * Get the number of events that have been dropped, all Levels.
+     * @return Count since the ring was created.
+     */
+    long getDroppedTotal() {
+        return droppedTotal.get();
+    }
+
+    /**
+     * Get the number of slots.
+     * @return Capacity.
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Get the approximate number of claimed events that have not yet been taken.
+     * @return Number of events in the ring.
+     */
+    int size() {
+        return (int)Math.max(0, claimSequence.get() - takeSequence.get());
+    }
+
+    /**
+     * Is the ring (approximately) empty?
+     * @return true if there are no claimed events that have not yet been taken.
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+}
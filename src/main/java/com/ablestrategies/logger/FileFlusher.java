@@ -0,0 +1,173 @@
+package com.ablestrategies.logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileFlusher - Applies a FlushPolicy for a file appender, deciding when to write and when to force.
+ * <p/>
+ * The appender calls appended() after buffering each batch (or event) and does the actual writing and
+ * forcing in the callbacks. For the timed policies, a shared timer thread ("JLogger-Flusher") also checks
+ * twice per flush.millis, so that the tail of a burst is written (or forced) even if nothing follows it.
+ * <ul>
+ *  <li> jlogger.logfile.flush        "PerBatch"  See FlushPolicy.java </li>
+ *  <li> jlogger.logfile.flush.millis "1000"      For Interval and GroupCommit </li>
+ *  <li> jlogger.logfile.flush.kbytes "1024"      For GroupCommit </li>
+ * </ul>
+ * @implNote The timer calls back while holding the appender's lock, so the appender must hold the same
+ * lock while calling appended(), closing(), or touching whatever the callbacks touch.
+ */
+class FileFlusher {
+
+    /** The timer thread, shared by all FileFlushers. */
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JLogger-Flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final FlushPolicy policy;
+    private final long intervalNanos;
+    private final long forceBytes;
+
+    /** Held by the appender while appending, and by the timer while calling back. */
+    private final Object lock;
+
+    /** Writes what the appender has buffered to the OS. */
+    private final Runnable writer;
+
+    /** Forces what the appender has written out to the device. */
+    private final Runnable forcer;
+
+    /** The timer's periodic check, if the policy is timed. */
+    private final ScheduledFuture<?> timerTask;
+
+    private long lastWriteNanos = System.nanoTime();
+    private long lastForceNanos = System.nanoTime();
+    private boolean unwritten = false;
+    private long unforcedBytes = 0;
+
+    /**
+     * Ctor.
+     * @param configuration Source of settings.
+     * @param lock The appender's lock.
+     * @param writer Writes what the appender has buffered to the OS.
+     * @param forcer Forces what the appender has written out to the device.
+     */
+    FileFlusher(IConfiguration configuration, Object lock, Runnable writer, Runnable forcer) {
+        policy = FlushPolicy.fromName(configuration.getString("jlogger.logfile.flush", "PerBatch"));
+        long intervalMillis = Math.max(1, configuration.getLong("jlogger.logfile.flush.millis", 1000));
+        intervalNanos = intervalMillis * 1_000_000L;
+        forceBytes = Math.max(1, configuration.getLong("jlogger.logfile.flush.kbytes", 1024)) * 1024;
+        this.lock = lock;
+        this.writer = writer;
+        this.forcer = forcer;
+        if(policy == FlushPolicy.Interval || policy == FlushPolicy.GroupCommit) {
+            long period = Math.max(1, intervalMillis / 2);
+            timerTask = timer.scheduleWithFixedDelay(this::checkTimer, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            timerTask = null;
+        }
+    }
+
+    /**
+     * Get the policy.
+     * @return The FlushPolicy in effect.
+     */
+    FlushPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Write and/or force, as the policy says, after the appender buffered a batch or event.
+     * @param bytes Number of bytes that were buffered.
+     * @param hasError true if there was an Error event among them.
+     * @implNote Called by the appender, holding its lock.
+     */
+    void appended(long bytes, boolean hasError) {
+        unwritten = true;
+        unforcedBytes += bytes;
+        long now = System.nanoTime();
+        switch (policy) {
+            case Interval -> {
+                if(now - lastWriteNanos >= intervalNanos) {
+                    write(now);
+                }
+            }
+            case GroupCommit -> {
+                write(now);
+                if(unforcedBytes >= forceBytes || now - lastForceNanos >= intervalNanos) {
+                    force(now);
+                }
+            }
+            case ForceOnError -> {
+                write(now);
+                if(hasError) {
+                    force(now);
+                }
+            }
+            default -> write(now);
+        }
+    }
+
+    /**
+     * Write everything, and force it if the policy ever forces, i.e. before the file is closed.
+     * @implNote Called by the appender, holding its lock.
+     */
+    void closing() {
+        long now = System.nanoTime();
+        write(now);
+        if(policy.forces() && unforcedBytes > 0) {
+            force(now);
+        }
+    }
+
+    /**
+     * Stop the timer, if any.
+     */
+    void close() {
+        if(timerTask != null) {
+            timerTask.cancel(false);
+        }
+    }
+
+    /**
+     * Timer check, for the tail end of a burst.
+     * @implNote Runs on the timer thread.
+     */
+    private void checkTimer() {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if(unwritten && now - lastWriteNanos >= intervalNanos) {
+                write(now);
+            }
+            if(policy == FlushPolicy.GroupCommit && unforcedBytes > 0 && now - lastForceNanos >= intervalNanos) {
+                write(now);
+                force(now);
+            }
+        }
+    }
+
+    /**
+     * Have the appender write what it has buffered, if anything.
+     * @param now Current System.nanoTime().
+     */
+    private void write(long now) {
+        writer.run();
+        unwritten = false;
+        lastWriteNanos = now;
+    }
+
+    /**
+     * Have the appender force what it has written. (so write first)
+     * @param now Current System.nanoTime().
+     */
+    private void force(long now) {
+        forcer.run();
+        unforcedBytes = 0;
+        lastForceNanos = now;
+    }
+
+}
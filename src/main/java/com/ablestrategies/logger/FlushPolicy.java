@@ -0,0 +1,52 @@
+package com.ablestrategies.logger;
+
+/**
+ * FlushPolicy - When the file appenders write what they have buffered to the OS, and when they force it
+ * from the OS out to the device. (fsync)
+ * <p/>
+ * Configured via "jlogger.logfile.flush", with "jlogger.logfile.flush.millis" and
+ * "jlogger.logfile.flush.kbytes" for the timed policies, which also flush on a timer thread if
+ * the appender goes quiet. (see FileFlusher) Writing protects against the JVM dying, forcing also
+ * protects against the OS dying, at a much greater cost.
+ * <p/>
+ * MappedSegmentAppender has nothing to write, as its events go straight to the page cache, so for
+ * it, only the forcing policies differ.
+ */
+public enum FlushPolicy {
+
+    /** Write each batch (or each event, if not batched) as it is appended. Never force. */
+    PerBatch,
+
+    /** Write at most every flush.millis, so a burst becomes fewer, bigger writes. Never force. */
+    Interval,
+
+    /** Write each batch, then force whenever flush.millis or flush.kbytes have passed since the last force. */
+    GroupCommit,
+
+    /** Write each batch, and force right away if it has an Error event. */
+    ForceOnError;
+
+    /**
+     * Look up a FlushPolicy based on its name.
+     * @param name PerBatch, Interval, etc. (not case-sensitive)
+     * @return corresponding FlushPolicy. PerBatch if not found.
+     * @apiNote static method
+     */
+    public static FlushPolicy fromName(String name) {
+        for(FlushPolicy policy : FlushPolicy.values()) {
+            if(policy.name().equalsIgnoreCase(name.trim())) {
+                return policy;
+            }
+        }
+        return FlushPolicy.PerBatch;
+    }
+
+    /**
+     * Does this policy ever force the data out to the device?
+     * @return true if it does.
+     */
+    boolean forces() {
+        return this == GroupCommit || this == ForceOnError;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.ablestrategies.logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FormattingStage - Formats a batch of events in parallel, on a small pool of worker threads, before
+ * the AppenderThread appends them.
+ * <p/>
+ * Each worker calls IAppender.prepare() for its share of the batch, which formats the events and caches
+ * the results in them. (see BaseTextFormatter) The AppenderThread waits for all of them, then appends the
+ * batch in its original order as usual, so the appenders just pick up the cached results.
+ * <ul>
+ *  <li> Enable it with "jlogger.format.workers", the number of worker threads. (default 0, disabled) </li>
+ *  <li> Batches smaller than MIN_PARALLEL_BATCH are left to the appenders, as that is cheaper. </li>
+ *  <li> The AppenderThread formats a share of each batch too, rather than just waiting. </li>
+ * </ul>
+ * @implNote Only the AppenderThread calls prepare(), and it does not return until every worker is done
+ * with the batch, so the events are never re-used while a worker still has them.
+ */
+class FormattingStage {
+
+    /** Smallest batch worth splitting across the workers. */
+    static int MIN_PARALLEL_BATCH = 32;
+
+    /** The worker threads. */
+    private final ExecutorService workers;
+
+    /** Number of worker threads. */
+    private final int workerCount;
+
+    /**
+     * Ctor.
+     * @param workerCount Number of worker threads.
+     */
+    FormattingStage(int workerCount) {
+        this.workerCount = Math.max(1, workerCount);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(this.workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "JLogger-Formatter-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Prepare (format) a batch of events for the appenders, in parallel.
+     * @param events The batch, already resolved. (see LogEvent.resolveDeferred)
+     * @param appenders The appenders that the batch is to be appended to.
+     * @implNote Called only by the AppenderThread. Returns only after all of the events are prepared.
+     */
+    void prepare(List<LogEvent> events, Collection<IAppender> appenders) {
+        int eventCount = events.size();
+        if(eventCount < MIN_PARALLEL_BATCH) {
+            return;
+        }
+        // size the shares first, then count them, so that rounding up never leaves a share past the end
+        int maxShares = Math.min(workerCount + 1, eventCount / Math.max(1, MIN_PARALLEL_BATCH / 2));
+        int shareSize = (eventCount + maxShares - 1) / maxShares;
+        int shareCount = (eventCount + shareSize - 1) / shareSize;
+        CountDownLatch done = new CountDownLatch(shareCount - 1);
+        for(int share = 1; share < shareCount; share++) {
+            List<LogEvent> shareEvents = events.subList(share * shareSize, Math.min(eventCount, (share + 1) * shareSize));
+            Runnable prepareShare = () -> {
+                try {
+                    prepareEach(shareEvents, appenders);
+                } finally {
+                    done.countDown();
+                }
+            };
+            try {
+                workers.execute(prepareShare);
+            } catch (RejectedExecutionException e) {
+                prepareShare.run(); // the workers are shut down, so do it here
+            }
+        }
+        prepareEach(events.subList(0, Math.min(eventCount, shareSize)), appenders);
+        boolean interrupted = false;
+        while(done.getCount() > 0) {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                interrupted = true; // keep waiting, the workers still have the events
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prepare some events for each of the appenders.
+     * @param events To be prepared.
+     * @param appenders The appenders to prepare them for.
+     */
+    private static void prepareEach(List<LogEvent> events, Collection<IAppender> appenders) {
+        for(LogEvent event : events) {
+            for(IAppender appender : appenders) {
+                try {
+                    appender.prepare(event);
+                } catch (RuntimeException e) {
+                    // not fatal, the appender will just format it (and report any problem) when appending
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    void close() {
+        workers.shutdown();
+    }
+
+}
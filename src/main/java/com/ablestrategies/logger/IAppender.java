@@ -1,5 +1,7 @@
 package com.ablestrategies.logger;
 
+import java.util.List;
+
 /**
  * @apiNote Name of each Appender should end with "Appender"
  * @implNote You'll need to specify the entire package name in jlogger.appenders.list
@@ -19,6 +21,35 @@ public interface IAppender {
      */
     void append(LogEvent logEvent);
 
+    /**
+     * Output a batch of LogEvents to the log, in order.
+     * @param logEvents To be formatted and written. (the list and events are only valid during this call)
+     * @apiNote Override this to amortize per-write overhead, i.e. format them all, then write once.
+     */
+    default void appendBatch(List<LogEvent> logEvents) {
+        for(LogEvent logEvent : logEvents) {
+            append(logEvent);
+        }
+    }
+
+    /**
+     * Prepare an event ahead of append(), i.e. format it, so that append() can re-use the result.
+     * @param logEvent To be prepared. (it is only valid during this call)
+     * @apiNote This may be called on a worker thread, at the same time as for other events, so it must
+     * be thread-safe. Cache the result in the event. (see BaseTextFormatter and FormattingStage)
+     */
+    default void prepare(LogEvent logEvent) {
+    }
+
+    /**
+     * Does this appender output the calling class or method? (i.e. it has @m, @c, @p, or @P in its prefix)
+     * @return true if LogEvents must capture their caller. Appenders that do not know should return true.
+     * @apiNote Capturing the caller walks the stack on the application thread, so return false if you can.
+     */
+    default boolean isCallerInfoNeeded() {
+        return true;
+    }
+
     /**
      * Notification that the app is shutting down, giving time to flush before close() is called.
      */
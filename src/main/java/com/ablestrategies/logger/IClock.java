@@ -0,0 +1,24 @@
+package com.ablestrategies.logger;
+
+/**
+ * IClock - Interface for the source of LogEvent timestamps.
+ * <p/>
+ * Implementations...
+ * <ul>
+ *  <li> SystemClock   The system clock, read for every event. (default) </li>
+ *  <li> CoarseClock   The system clock, read periodically by a ticker thread. (cheaper, accurate to a tick) </li>
+ *  <li> ManualClock   Set by the caller, for deterministic tests. </li>
+ * </ul>
+ * Select one with the "jlogger.clock" setting, or with LogManager.setClock().
+ * @implNote Called on the caller's thread, by every Logger.log() that passes the Level check, so
+ * it should be quick and must be thread-safe.
+ */
+public interface IClock {
+
+    /**
+     * Get the current time.
+     * @return Nanoseconds since 1970-01-01T00:00:00Z.
+     */
+    long epochNanos();
+
+}
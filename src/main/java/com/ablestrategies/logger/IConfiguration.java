@@ -3,13 +3,30 @@ package com.ablestrategies.logger;
 /**
  * IConfiguration - Interface for a configuration provider<p/>
  * Expected Configuration Settings...<ul>
- * <li> jlogger.appenders.list   "ConsoleAppender"     Comma-delimited list </li>
+ * <li> jlogger.appenders.list   "ConsoleAppender"     Comma-delimited list, see QueuedAppender.java </li>
  * <li> jlogger.default.level    "Warn"                See LogLevel.java </li>
  * <li> jlogger.console.prefix   "@t @c [@L]: "        See TextFormatter.java </li>
  * <li> jlogger.logfile.prefix   "@t @c [@L]: "        See TextFormatter.java </li>
  * <li> jlogger.logfile.name     "jlog.log"            See FileAppender.java </li>
  * <li> jlogger.logfile.kmaxsize "100"                 See FileAppender.java </li>
  * <li> jlogger.logfile.backups  "10"                  See FileAppender.java </li>
+ * <li> jlogger.logfile.kbuffer  "256"                 KB of write buffers, see LogFileAppender.java </li>
+ * <li> jlogger.logfile.compress "false"               gzip the backups, see LogFileSet.java </li>
+ * <li> jlogger.logfile.kmaxtotal "0"                  Most KB of backups, 0 for no limit </li>
+ * <li> jlogger.logfile.maxagehours "0"                Oldest backup to keep, 0 for no limit </li>
+ * <li> jlogger.logfile.flush    "PerBatch"            See FlushPolicy.java </li>
+ * <li> jlogger.logfile.flush.millis "1000"            For FlushPolicy Interval and GroupCommit </li>
+ * <li> jlogger.logfile.flush.kbytes "1024"            For FlushPolicy GroupCommit </li>
+ * <li> jlogger.queue.capacity   "8192"                Max queued events </li>
+ * <li> jlogger.queue.overflow   "Block"               See OverflowPolicy.java </li>
+ * <li> jlogger.queue.droplevel  "Info"                For OverflowPolicy.DropBelowLevel </li>
+ * <li> jlogger.queue.appender.overflow "DropNewest"  For ":thread" appenders, see QueuedAppender.java </li>
+ * <li> jlogger.queue.wait       "Blocking"            See WaitStrategy.java </li>
+ * <li> jlogger.queue.batchsize  "256"                 Max events per batch </li>
+ * <li> jlogger.clock            "System"              "System" or "Coarse", see IClock.java </li>
+ * <li> jlogger.clock.tickmillis "10"                  For CoarseClock, the accuracy of timestamps </li>
+ * <li> jlogger.dump.maxchars    "32768"               Most chars per @o/@O dump </li>
+ * <li> jlogger.format.workers   "0"                   See FormattingStage.java </li>
  * </ul>
  */
 public interface IConfiguration {
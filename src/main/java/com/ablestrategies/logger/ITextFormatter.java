@@ -18,4 +18,11 @@ public interface ITextFormatter {
      */
     String format(LogEvent logEvent);
 
+    /**
+     * Release anything that the formatter holds, i.e. its slot in the formatters cache. (see BaseTextFormatter)
+     * It may still be used after this, just less efficiently.
+     */
+    default void close() {
+    }
+
 }
@@ -0,0 +1,131 @@
+package com.ablestrategies.logger;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * LevelTrie - The setLevel() settings and the Loggers, in a trie of dot-delimited name segments.
+ * <p/>
+ * setLevel(level, prefix) applies to every Logger whose name startsWith(prefix), and the last call wins.
+ * A prefix may end part-way into a segment, such as "com.xy", so each prefix is split into its full
+ * segments ("com") and a partial last segment ("xy"). The setting is then kept at the node for the full
+ * segments, keyed by the partial segment. A name starts with the prefix if and only if it has those same
+ * full segments followed by a segment that starts with the partial one.
+ * <ul>
+ *  <li> Resolving the Level of a new Logger only looks at the nodes along its name. O(depth) </li>
+ *  <li> setLevel() only visits the subtree of Loggers that it applies to. </li>
+ *  <li> Settings that a setLevel() overrides (all those within its subtree) are discarded. </li>
+ * </ul>
+ * @implNote Not thread-safe, LogManager synchronizes on it.
+ */
+class LevelTrie {
+
+    /** A setLevel() setting, where the higher sequence number wins. */
+    private record Setting(Level level, long sequence) {}
+
+    /** A node of the trie, for one name segment. */
+    private static class Node {
+
+        /** Child nodes, by the next name segment. */
+        final Map<String, Node> children = new HashMap<>();
+
+        /** Settings by partial next segment, if any. ("" applies to every child) */
+        Map<String, Setting> settings = null;
+
+        /** The Logger with the name that ends at this node, if any. */
+        Logger logger = null;
+    }
+
+    /** Root of the trie, before the first segment. */
+    private final Node root = new Node();
+
+    /** Sequence number of the last setLevel(). */
+    private long lastSequence = 0;
+
+    /** Number of settings currently kept. */
+    private int settingCount = 0;
+
+    /**
+     * Add a new Logger, setting its Level per the previous setLevel() calls, if any apply to it.
+     * @param logger The new Logger.
+     */
+    void addLogger(Logger logger) {
+        String[] segments = logger.getPackageClassName().split("\\.", -1);
+        Setting winner = null;
+        Node node = root;
+        for(String segment : segments) {
+            if(node.settings != null) {
+                for(Map.Entry<String, Setting> entry : node.settings.entrySet()) {
+                    if(segment.startsWith(entry.getKey()) && (winner == null || entry.getValue().sequence > winner.sequence)) {
+                        winner = entry.getValue();
+                    }
+                }
+            }
+            node = node.children.computeIfAbsent(segment, key -> new Node());
+        }
+        node.logger = logger;
+        if(winner != null) {
+            logger.setLevel(winner.level);
+        }
+    }
+
+    /**
+     * Set the Level of every Logger whose name starts with the prefix, now and for any created later.
+     * @param level Level to set the Loggers to.
+     * @param prefix Partial or full Logger name, "" for all.
+     */
+    void setLevel(Level level, String prefix) {
+        String[] segments = prefix.split("\\.", -1);
+        String partial = segments[segments.length - 1];
+        Node node = root;
+        for(int index = 0; index < segments.length - 1; index++) {
+            node = node.children.computeIfAbsent(segments[index], key -> new Node());
+        }
+        if(node.settings == null) {
+            node.settings = new HashMap<>();
+        }
+        // discard the settings that this one overrides, here and in the subtree
+        Iterator<String> partials = node.settings.keySet().iterator();
+        while(partials.hasNext()) {
+            if(partials.next().startsWith(partial)) {
+                partials.remove();
+                settingCount--;
+            }
+        }
+        node.settings.put(partial, new Setting(level, ++lastSequence));
+        settingCount++;
+        for(Map.Entry<String, Node> child : node.children.entrySet()) {
+            if(child.getKey().startsWith(partial)) {
+                applyToSubtree(child.getValue(), level);
+            }
+        }
+    }
+
+    /**
+     * Set the Level of every Logger in a subtree, and discard its settings, as they are now overridden.
+     * @param node Root of the subtree.
+     * @param level Level to set the Loggers to.
+     */
+    private void applyToSubtree(Node node, Level level) {
+        if(node.logger != null) {
+            node.logger.setLevel(level);
+        }
+        if(node.settings != null) {
+            settingCount -= node.settings.size();
+            node.settings = null;
+        }
+        for(Node child : node.children.values()) {
+            applyToSubtree(child, level);
+        }
+    }
+
+    /**
+     * Get the number of setLevel() settings that are kept, i.e. not yet overridden.
+     * @return Count of settings.
+     */
+    int getSettingCount() {
+        return settingCount;
+    }
+
+}
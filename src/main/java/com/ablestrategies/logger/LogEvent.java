@@ -1,40 +1,71 @@
 package com.ablestrategies.logger;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
  * LogEvent - Keeps track of the string, timestamp, and other info for a message to be logged.
  * @apiNote There are no getters here, as those are in LogEventXxxGetter classes.
+ * @implNote LogEvents in the EventRingBuffer are re-used (re-populated) rather than re-allocated,
+ * so do not hang on to a LogEvent after it has been appended.
  */
 public class LogEvent {
 
+    /** Source of timestamps. (see LogManager.setClock) */
+    static volatile IClock clock = new SystemClock();
+
     /** Level of priority/severity for this message. */
-    final Level level;
+    Level level;
 
     /** The message including replacement symbols for the args. */
-    final String message;
+    String message;
+
+    /** If not null, supplies the message, on the AppenderThread. (see DeferredSupplier) */
+    DeferredSupplier<String> messageSupplier;
 
     /** Vararg args to be used in message replacement symbols - index is one-based. */
-    final Object[] arguments;
+    Object[] arguments;
+
+    /** Most primitive (unboxed) arguments that an event can hold. (see Logger's primitive overloads) */
+    static final int MAX_PRIMITIVE_ARGS = 4;
+
+    /** Values of primitiveTypes. */
+    static final byte NOT_PRIMITIVE = 0, LONG_ARG = 1, DOUBLE_ARG = 2, BOOLEAN_ARG = 3, CHAR_ARG = 4, FLOAT_ARG = 5;
+
+    /** Type of each primitive argument, used instead of arguments when primitiveCount is non-zero. */
+    final byte[] primitiveTypes = new byte[MAX_PRIMITIVE_ARGS];
+
+    /** Value of each primitive argument. (doubles and floats as raw bits, booleans as 1 or 0) */
+    final long[] primitiveValues = new long[MAX_PRIMITIVE_ARGS];
+
+    /** Number of primitive arguments, zero if the arguments (if any) are in the arguments array. */
+    int primitiveCount;
 
     /** Thrown exception, optionally passed as the first argument, or may be null. */
-    final Throwable throwable;
+    Throwable throwable;
 
-    /** The date and time the Logger was called to process this event. */
-    final LocalDateTime timestamp;
+    /** When the Logger was called to process this event, in nanoseconds since the epoch. (see IClock) */
+    long timestampNanos;
 
     /** The name of the calling thread.*/
-    final String threadName;
+    String threadName;
 
     /** The dot-delimited package and class where the log request call originated. */
-    final String className;
+    String className;
 
     /** The method that called the Logger. */
-    final String methodName;
+    String methodName;
+
+    /** Most formatter signatures that can have a slot in formattersCache. (see LogManager.registerFormatter) */
+    static final int FORMATTER_SLOTS = 16;
+
+    /** Used by XxxFormatters to cache results for re-use, by slot. (copies may share it, see QueuedAppender) */
+    private String[] formattersCache = new String[FORMATTER_SLOTS];
 
-    /** Used by XxxFormatters to cache results for re-use. */
-    private final HashMap<String, String> formattersCache;
+    /** True if formattersCache is shared with copies of this event, so it must be replaced rather than cleared. */
+    private boolean formattersCacheShared = false;
+
+    /** Position in the EventRingBuffer that this event was claimed for. */
+    long sequence;
 
     /**
      * Ctor.
@@ -43,15 +74,53 @@ public class LogEvent {
      * @param args vararg args to be used in message replacement symbols.
      */
     public LogEvent(Level level, String message, Object... args) {
+        this(true, level, message, args);
+    }
+
+    /**
+     * Ctor.
+     * @param captureCaller true to look up the calling class and method, false to skip that.
+     * @param level the Level of priority/severity for this message.
+     * @param message the message including replacement symbols for the args that follow.
+     * @param args vararg args to be used in message replacement symbols.
+     * @implNote Finding the caller means walking the stack, so LogManager skips it unless
+     * some appender (or the message itself) references a caller symbol. (i.e. @m, @c, @p, @P)
+     */
+    LogEvent(boolean captureCaller, Level level, String message, Object[] args) {
+        populate(captureCaller, level, message, args);
+    }
+
+    /**
+     * Ctor. (for empty, re-usable slots in the EventRingBuffer)
+     */
+    LogEvent() {
+        this.level = Level.Trace;
+    }
+
+    /**
+     * (Re)populate this event, discarding anything that it previously held.
+     * @param captureCaller true to look up the calling class and method, false to skip that.
+     * @param level the Level of priority/severity for this message.
+     * @param message the message including replacement symbols for the args that follow.
+     * @param args vararg args to be used in message replacement symbols.
+     */
+    void populate(boolean captureCaller, Level level, String message, Object[] args) {
         this.level = level;
         this.message = message;
-        this.timestamp = LocalDateTime.now();
+        this.messageSupplier = null;
+        this.timestampNanos = clock.epochNanos();
         this.threadName = Thread.currentThread().getName();
         this.arguments = args;
-        StackTraceElement stackTraceElement = Support.getCallerStackTraceElement();
-        this.className = stackTraceElement.getClassName();
-        this.methodName = stackTraceElement.getMethodName();
-        this.formattersCache = new HashMap<>();
+        this.primitiveCount = 0;
+        StackWalker.StackFrame callerFrame = captureCaller ? Support.getCallerStackFrame() : null;
+        if(callerFrame != null) {
+            this.className = callerFrame.getClassName();
+            this.methodName = callerFrame.getMethodName();
+        } else {
+            this.className = "";
+            this.methodName = "";
+        }
+        resetFormattersCache();
         if(arguments != null && arguments.length > 0 && arguments[0] instanceof Throwable) {
             this.throwable = (Throwable)arguments[0];
         } else {
@@ -59,22 +128,177 @@ public class LogEvent {
         }
     }
 
+    /**
+     * Populate this event as a copy of another one.
+     * @param other The event to be copied.
+     */
+    void copyFrom(LogEvent other) {
+        copyFieldsFrom(other);
+        resetFormattersCache();
+        System.arraycopy(other.formattersCache, 0, this.formattersCache, 0, FORMATTER_SLOTS);
+    }
+
+    /**
+     * Populate this event as a copy of another one, sharing (rather than copying) its formatters cache.
+     * @param other The event to be copied.
+     * @apiNote This lets appenders on different threads re-use each other's formatted results.
+     */
+    void copySharingCacheFrom(LogEvent other) {
+        copyFieldsFrom(other);
+        this.formattersCache = other.formattersCache;
+        this.formattersCacheShared = true;
+        other.formattersCacheShared = true;
+    }
+
+    /**
+     * Copy everything but the formatters cache from another event.
+     * @param other The event to be copied.
+     */
+    private void copyFieldsFrom(LogEvent other) {
+        this.level = other.level;
+        this.message = other.message;
+        this.messageSupplier = other.messageSupplier;
+        this.timestampNanos = other.timestampNanos;
+        this.threadName = other.threadName;
+        this.arguments = other.arguments;
+        this.primitiveCount = other.primitiveCount;
+        System.arraycopy(other.primitiveTypes, 0, this.primitiveTypes, 0, other.primitiveCount);
+        System.arraycopy(other.primitiveValues, 0, this.primitiveValues, 0, other.primitiveCount);
+        this.className = other.className;
+        this.methodName = other.methodName;
+        this.throwable = other.throwable;
+    }
+
+    /**
+     * Empty the formatters cache, or (if it is shared with another event) start a new one.
+     */
+    private void resetFormattersCache() {
+        if(formattersCacheShared) {
+            formattersCache = new String[FORMATTER_SLOTS];
+            formattersCacheShared = false;
+        } else {
+            Arrays.fill(formattersCache, null);
+        }
+    }
+
+    /**
+     * Let go of references to the caller's data, so that an idle slot does not keep it alive.
+     */
+    void release() {
+        this.message = null;
+        this.messageSupplier = null;
+        this.arguments = null;
+        this.primitiveCount = 0;
+        this.throwable = null;
+        resetFormattersCache();
+    }
+
+    /**
+     * Call any DeferredSuppliers, replacing them with the values that they supply.
+     * @implNote Called by the AppenderThread before the appenders see the event. The caller's arguments
+     * array is not modified, as it is copied if any of its arguments are DeferredSuppliers.
+     */
+    void resolveDeferred() {
+        if(messageSupplier != null) {
+            message = String.valueOf(messageSupplier.resolve());
+            messageSupplier = null;
+        }
+        if(arguments == null) {
+            return;
+        }
+        Object[] resolved = arguments;
+        for(int index = 0; index < arguments.length; index++) {
+            if(arguments[index] instanceof DeferredSupplier<?> deferred) {
+                if(resolved == arguments) {
+                    resolved = arguments.clone();
+                }
+                resolved[index] = deferred.resolve();
+            }
+        }
+        if(resolved != arguments) {
+            arguments = resolved;
+            if(arguments[0] instanceof Throwable) {
+                throwable = (Throwable)arguments[0];
+            }
+        }
+    }
+
+    /**
+     * Set a long (or int, short, byte) argument, without boxing it.
+     * @param oneBasedIndex Argument number, 1 to MAX_PRIMITIVE_ARGS.
+     * @param value The value of the argument.
+     */
+    void setLongArgument(int oneBasedIndex, long value) {
+        setPrimitiveArgument(oneBasedIndex, LONG_ARG, value);
+    }
+
+    /**
+     * Set a double (or float) argument, without boxing it.
+     * @param oneBasedIndex Argument number, 1 to MAX_PRIMITIVE_ARGS.
+     * @param value The value of the argument.
+     */
+    void setDoubleArgument(int oneBasedIndex, double value) {
+        setPrimitiveArgument(oneBasedIndex, DOUBLE_ARG, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Set a boolean argument, without boxing it.
+     * @param oneBasedIndex Argument number, 1 to MAX_PRIMITIVE_ARGS.
+     * @param value The value of the argument.
+     */
+    void setBooleanArgument(int oneBasedIndex, boolean value) {
+        setPrimitiveArgument(oneBasedIndex, BOOLEAN_ARG, value ? 1 : 0);
+    }
+
+    /**
+     * Set a char argument, without boxing it, so that it is logged as a character rather than a number.
+     * @param oneBasedIndex Argument number, 1 to MAX_PRIMITIVE_ARGS.
+     * @param value The value of the argument.
+     */
+    void setCharArgument(int oneBasedIndex, char value) {
+        setPrimitiveArgument(oneBasedIndex, CHAR_ARG, value);
+    }
+
+    /**
+     * Set a float argument, without boxing it, so that it is logged as a float rather than a double.
+     * @param oneBasedIndex Argument number, 1 to MAX_PRIMITIVE_ARGS.
+     * @param value The value of the argument.
+     */
+    void setFloatArgument(int oneBasedIndex, float value) {
+        setPrimitiveArgument(oneBasedIndex, FLOAT_ARG, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Set a primitive argument.
+     * @param oneBasedIndex Argument number, 1 to MAX_PRIMITIVE_ARGS.
+     * @param type LONG_ARG, etc.
+     * @param bits The value, as stored in primitiveValues.
+     */
+    private void setPrimitiveArgument(int oneBasedIndex, byte type, long bits) {
+        primitiveTypes[oneBasedIndex - 1] = type;
+        primitiveValues[oneBasedIndex - 1] = bits;
+        primitiveCount = Math.max(primitiveCount, oneBasedIndex);
+    }
+
     /**
      * Get a previously cached result.
-     * @param formatterSignature ITextFormatter name + settings. i.e. "XxxxFormatter;[Prefix @t]:3""
-     * @return Previously cached result of same signature.
+     * @param slot The formatter signature's slot, from LogManager.registerFormatter(), or -1 for none.
+     * @return Previously cached result of same signature, or null.
      */
-    String getFormattersCache(String formatterSignature) {
-        return formattersCache.get(formatterSignature);
+    String getFormattersCache(int slot) {
+        return slot < 0 ? null : formattersCache[slot];
     }
 
     /**
      * Add an XxxTextFormatter result cache.
-     * @param formatterSignature Formatter name + settings. i.e. "XxxxFormatter;[Prefix @t]:3""
+     * @param slot The formatter signature's slot, from LogManager.registerFormatter(), or -1 for none.
      * @param result Result of calling format() with this signature.
+     * @implNote Copies that share the cache may race to fill a slot, but with the same result.
      */
-    void putFormattersCache(String formatterSignature, String result) {
-        formattersCache.put(formatterSignature, result);
+    void putFormattersCache(int slot, String result) {
+        if(slot >= 0 && result != null) {
+            formattersCache[slot] = result;
+        }
     }
 
     /**
@@ -12,6 +12,76 @@ import java.util.Locale;
  */
 public class LogEventStringGetter extends LogEventTypedGetter {
 
+    /** Shared (immutable) formatters, rather than building one for every timestamp. */
+    private static final DateTimeFormatter LOCAL_DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM).withLocale(Locale.US);
+    private static final DateTimeFormatter LOCAL_DATE_FORMATTER =
+            DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(Locale.US);
+    private static final DateTimeFormatter LOCAL_TIME_FORMATTER =
+            DateTimeFormatter.ofLocalizedTime(FormatStyle.MEDIUM).withLocale(Locale.US);
+    private static final DateTimeFormatter UTC_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final DateTimeFormatter UTC_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter UTC_TIME_FORMATTER = DateTimeFormatter.ofPattern("'T'HH:mm:ss'Z'");
+    private static final DateTimeFormatter UTC_DATE_TIME_MILLIS_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX");
+
+    /** For splitting timestamps into seconds and nanos. */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** Forms of timestamp, as indexes into RenderedSecond. */
+    private static final int LOCAL_DATE_TIME = 0, LOCAL_DATE = 1, LOCAL_TIME = 2, UTC_DATE_TIME = 3, UTC_DATE = 4, UTC_TIME = 5;
+
+    /**
+     * The timestamp forms for one second, each rendered when first needed.
+     * @implNote The forms have no sub-second part, so they are the same for every event in that second.
+     * Threads may race to render a form, but they will all render the same String.
+     */
+    private static final class RenderedSecond {
+
+        /** The second, since the epoch. */
+        final long epochSecond;
+
+        /** The timestamp, truncated to the second, in local time. (which the "UTC" forms label as UTC) */
+        final LocalDateTime timestamp;
+
+        /** The rendered forms, by index, or null if not yet rendered. */
+        private final String[] forms = new String[UTC_TIME + 1];
+
+        /**
+         * Ctor.
+         * @param epochSecond The second.
+         * @param timestamp The timestamp, truncated to the second.
+         */
+        RenderedSecond(long epochSecond, LocalDateTime timestamp) {
+            this.epochSecond = epochSecond;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Get one form of this second, rendering it if this is the first time.
+         * @param form LOCAL_DATE_TIME, etc.
+         * @return The rendered timestamp.
+         */
+        String get(int form) {
+            String rendered = forms[form];
+            if(rendered == null) {
+                rendered = switch (form) {
+                    case LOCAL_DATE_TIME -> timestamp.format(LOCAL_DATE_TIME_FORMATTER);
+                    case LOCAL_DATE -> timestamp.format(LOCAL_DATE_FORMATTER);
+                    // DateTimeFormatter inserts an &nnbsp;, so we have to get rid of it...
+                    case LOCAL_TIME -> timestamp.format(LOCAL_TIME_FORMATTER).replace("\u202F", "");
+                    case UTC_DATE_TIME -> timestamp.atOffset(ZoneOffset.UTC).format(UTC_DATE_TIME_FORMATTER);
+                    case UTC_DATE -> timestamp.atOffset(ZoneOffset.UTC).format(UTC_DATE_FORMATTER);
+                    default -> timestamp.atOffset(ZoneOffset.UTC).format(UTC_TIME_FORMATTER);
+                };
+                forms[form] = rendered;
+            }
+            return rendered;
+        }
+    }
+
+    /** The most recently rendered second, shared by all getters. */
+    private static volatile RenderedSecond lastRenderedSecond = new RenderedSecond(Long.MIN_VALUE, LocalDateTime.MIN);
+
     /**
      * Ctor.
      * @param event The LogEvent that this object will fetch data from.
@@ -25,9 +95,7 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return Example: "9/23/25, 1:26PM" (depending on locale)
      */
     public String getTimestampLocalDateTimeAsString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM)
-                .withLocale(Locale.US);
-        return event.timestamp.format(formatter);
+        return getRenderedTimestamp(LOCAL_DATE_TIME);
     }
 
     /**
@@ -35,9 +103,7 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return Example: "9/23/25" (depending on locale)
      */
     public String getTimestampLocalDateAsString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)
-                .withLocale(Locale.US);
-        return event.timestamp.format(formatter);
+        return getRenderedTimestamp(LOCAL_DATE);
     }
 
     /**
@@ -45,10 +111,7 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return Example: "1:26PM" (depending on locale)
      */
     public String getTimestampLocalTimeAsString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.MEDIUM)
-                .withLocale(Locale.US);
-        // DateTimeFormatter inserts an &nnbsp;, so we have to get rid of it...
-        return event.timestamp.format(formatter).replaceAll("[\\u202F]", "");
+        return getRenderedTimestamp(LOCAL_TIME);
     }
 
     /**
@@ -56,16 +119,15 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return Example: "2025-09-23T13:26:44.736Z"
      */
     public String getTimestampUtcDateTimeAsString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
-        return event.timestamp.atOffset(ZoneOffset.UTC).format(formatter);
+        return getRenderedTimestamp(UTC_DATE_TIME);
     }
 
     /**
-     * Get the tinestamp in nanoseconds.
-     * @return Nanos.
+     * Get the nanoseconds part of the tinestamp, as precise as the IClock is.
+     * @return Nanos within the second.
      */
     public String getTimestampNanosAsString() {
-        return "" + event.timestamp.getNano();
+        return Long.toString(Math.floorMod(event.timestampNanos, NANOS_PER_SECOND));
     }
 
     /**
@@ -73,8 +135,7 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return Example: "2025-09-23"
      */
     public String getTimestampUtcDateAsString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        return event.timestamp.atOffset(ZoneOffset.UTC).format(formatter);
+        return getRenderedTimestamp(UTC_DATE);
     }
 
     /**
@@ -82,8 +143,22 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return Example: "T13:26:44.736Z"
      */
     public String getTimestampUtcTimeAsString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("'T'HH:mm:ss'Z'");
-        return event.timestamp.atOffset(ZoneOffset.UTC).format(formatter);
+        return getRenderedTimestamp(UTC_TIME);
+    }
+
+    /**
+     * Get the timestamp in one of the forms above, from the cache if the event is in the same second.
+     * @param form LOCAL_DATE_TIME, etc.
+     * @return The rendered timestamp.
+     */
+    private String getRenderedTimestamp(int form) {
+        long epochSecond = Math.floorDiv(event.timestampNanos, NANOS_PER_SECOND);
+        RenderedSecond renderedSecond = lastRenderedSecond;
+        if(renderedSecond.epochSecond != epochSecond) {
+            renderedSecond = new RenderedSecond(epochSecond, toLocalDateTime(epochSecond * NANOS_PER_SECOND));
+            lastRenderedSecond = renderedSecond;
+        }
+        return renderedSecond.get(form);
     }
 
     /**
@@ -106,6 +181,10 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return The String representation of the argument.
      */
     public String getLongArgumentAsString(int oneBasedIndex) {
+        byte primitiveType = getPrimitiveArgumentType(oneBasedIndex);
+        if(primitiveType != LogEvent.NOT_PRIMITIVE) {
+            return primitiveType == LogEvent.LONG_ARG ? Long.toString(getPrimitiveArgumentValue(oneBasedIndex)) : "(null)";
+        }
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if(arg != null && Long.class.isAssignableFrom(arg.getClass())) {
@@ -116,12 +195,31 @@ public class LogEventStringGetter extends LogEventTypedGetter {
         return result;
     }
 
+    /**
+     * Append the representation of an argument that is a Long, Integer, long, or int.
+     * @param buffer To append to.
+     * @param oneBasedIndex argument number (one-based)
+     * @implNote A primitive long is appended as is, without a String.
+     */
+    public void appendLongArgument(StringBuilder buffer, int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) == LogEvent.LONG_ARG) {
+            buffer.append(getPrimitiveArgumentValue(oneBasedIndex));
+        } else {
+            buffer.append(getLongArgumentAsString(oneBasedIndex));
+        }
+    }
+
     /**
      * Get the String representation of an argument that is a Double, double, Float, or float.
      * @param oneBasedIndex argument number (one-based)
      * @return The String representation of the argument.
      */
     public String getDoubleArgumentAsString(int oneBasedIndex) {
+        byte primitiveType = getPrimitiveArgumentType(oneBasedIndex);
+        if(primitiveType != LogEvent.NOT_PRIMITIVE) {
+            return primitiveType == LogEvent.DOUBLE_ARG || primitiveType == LogEvent.FLOAT_ARG ?
+                    getPrimitiveArgumentAsString(oneBasedIndex) : "(null)";
+        }
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if(arg != null && Double.class.isAssignableFrom(arg.getClass())) {
@@ -138,6 +236,10 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return The String representation of the argument.
      */
     public String getBooleanArgumentAsString(int oneBasedIndex) {
+        byte primitiveType = getPrimitiveArgumentType(oneBasedIndex);
+        if(primitiveType != LogEvent.NOT_PRIMITIVE) {
+            return primitiveType == LogEvent.BOOLEAN_ARG ? getPrimitiveArgumentAsString(oneBasedIndex) : "(null)";
+        }
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if(arg != null && Boolean.class.isAssignableFrom(arg.getClass())) {
@@ -153,6 +255,10 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return The String representation of the argument.
      */
     public String getHexArgumentAsString(int oneBasedIndex) {
+        byte primitiveType = getPrimitiveArgumentType(oneBasedIndex);
+        if(primitiveType != LogEvent.NOT_PRIMITIVE) {
+            return primitiveType == LogEvent.LONG_ARG ? Long.toHexString(getPrimitiveArgumentValue(oneBasedIndex)) : "(null)";
+        }
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if(arg != null && Long.class.isAssignableFrom(arg.getClass())) {
@@ -172,9 +278,7 @@ public class LogEventStringGetter extends LogEventTypedGetter {
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if(arg != null && LocalDateTime.class.isAssignableFrom(arg.getClass())) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM)
-                    .withLocale(Locale.US);
-            result = ((LocalDateTime) arg).format(formatter);
+            result = ((LocalDateTime) arg).format(LOCAL_DATE_TIME_FORMATTER);
         }
         return result;
     }
@@ -188,8 +292,7 @@ public class LogEventStringGetter extends LogEventTypedGetter {
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if (arg != null && LocalDateTime.class.isAssignableFrom(arg.getClass())) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX");
-            result = ((LocalDateTime) arg).atOffset(ZoneOffset.UTC).format(formatter);
+            result = ((LocalDateTime) arg).atOffset(ZoneOffset.UTC).format(UTC_DATE_TIME_MILLIS_FORMATTER);
         }
         return result;
     }
@@ -228,6 +331,9 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return The String representation of the argument.
      */
     public String getToStringArgumentAsString(int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) != LogEvent.NOT_PRIMITIVE) {
+            return getPrimitiveArgumentAsString(oneBasedIndex);
+        }
         Object arg = getArgumentAsObject(oneBasedIndex);
         String result = "(null)";
         if(arg != null) {
@@ -243,9 +349,22 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return a String representation of the object
      */
     public String getObjectArgumentAsString(int oneBasedIndex, int depth) {
+        StringBuilder buffer = new StringBuilder();
+        appendObjectArgument(buffer, oneBasedIndex, depth);
+        return buffer.toString();
+    }
+
+    /**
+     * Dump an object, appending it straight to a buffer rather than returning it as a String.
+     * @param buffer To append the dump to.
+     * @param oneBasedIndex argument number (one-based)
+     * @param depth 0=simple one-line, 1=shallow dump, 2=future
+     * @implNote The dump is limited to ObjectDumper.MAX_DUMP_CHARS.
+     */
+    public void appendObjectArgument(StringBuilder buffer, int oneBasedIndex, int depth) {
         ObjectDumper dumper = new ObjectDumper(depth, 5, false);
         Object arg = getArgumentAsObject(oneBasedIndex);
-        return dumper.dump(arg, "vararg[" + oneBasedIndex + "]");
+        dumper.dump(arg, "vararg[" + oneBasedIndex + "]", buffer);
     }
 
     /**
@@ -254,6 +373,9 @@ public class LogEventStringGetter extends LogEventTypedGetter {
      * @return The String representation of the argument.
      */
     public String getAnyTypeArgumentAsString(int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) != LogEvent.NOT_PRIMITIVE) {
+            return getPrimitiveArgumentAsString(oneBasedIndex);
+        }
         Object arg = getArgumentAsObject(oneBasedIndex);
         if(arg == null) {
             return "(null)";
@@ -265,4 +387,21 @@ public class LogEventStringGetter extends LogEventTypedGetter {
         }
     }
 
+    /**
+     * Get the String representation of an argument that was passed as a primitive, without boxing it.
+     * @param oneBasedIndex argument number (one-based)
+     * @return The String representation of the argument.
+     * @apiNote Check getPrimitiveArgumentType() first.
+     */
+    private String getPrimitiveArgumentAsString(int oneBasedIndex) {
+        long value = getPrimitiveArgumentValue(oneBasedIndex);
+        return switch (getPrimitiveArgumentType(oneBasedIndex)) {
+            case LogEvent.LONG_ARG -> Long.toString(value);
+            case LogEvent.DOUBLE_ARG -> Double.toString(Double.longBitsToDouble(value));
+            case LogEvent.CHAR_ARG -> String.valueOf((char)value);
+            case LogEvent.FLOAT_ARG -> Float.toString(Float.intBitsToFloat((int)value));
+            default -> Boolean.toString(value != 0);
+        };
+    }
+
 }
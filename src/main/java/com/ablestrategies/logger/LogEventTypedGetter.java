@@ -1,11 +1,14 @@
 package com.ablestrategies.logger;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * LogEventTypeGetter - For accessing LogEvent fields as types, not just Strings..
  * @apiNote Intended for use with binary Appenders (db, network)
  * @implNote These getters return a 0 or default value if the arg is missing or null.
+ * Arguments that were passed as primitives (see Logger) are returned without being boxed.
  */
 public class LogEventTypedGetter extends BaseLogEventGetter {
 
@@ -17,6 +20,32 @@ public class LogEventTypedGetter extends BaseLogEventGetter {
         super(event);
     }
 
+    /**
+     * Get the timestamp, as local date and time.
+     * @return The local date and time that the Logger was called.
+     */
+    public LocalDateTime getTimestamp() {
+        return toLocalDateTime(event.timestampNanos);
+    }
+
+    /**
+     * Get the timestamp, as it came from the IClock.
+     * @return Nanoseconds since 1970-01-01T00:00:00Z.
+     */
+    public long getTimestampEpochNanos() {
+        return event.timestampNanos;
+    }
+
+    /**
+     * Convert a timestamp to local date and time, in the default time zone.
+     * @param epochNanos Nanoseconds since 1970-01-01T00:00:00Z.
+     * @return Local date and time.
+     * @apiNote static method
+     */
+    static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault());
+    }
+
     /**
      * Get a String argument.
      * @param oneBasedIndex argument number (one-based)
@@ -39,6 +68,9 @@ public class LogEventTypedGetter extends BaseLogEventGetter {
      * @return The value of the argument.
      */
     public long getLongArgument(int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) == LogEvent.LONG_ARG) {
+            return getPrimitiveArgumentValue(oneBasedIndex);
+        }
         Object obj = getArgumentAsObject(oneBasedIndex);
         return switch (obj) {
             case null -> 0L;
@@ -54,6 +86,11 @@ public class LogEventTypedGetter extends BaseLogEventGetter {
      * @return The value of the argument.
      */
     public double getDoubleArgument(int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) == LogEvent.DOUBLE_ARG) {
+            return Double.longBitsToDouble(getPrimitiveArgumentValue(oneBasedIndex));
+        } else if(getPrimitiveArgumentType(oneBasedIndex) == LogEvent.FLOAT_ARG) {
+            return Float.intBitsToFloat((int)getPrimitiveArgumentValue(oneBasedIndex));
+        }
         Object obj = getArgumentAsObject(oneBasedIndex);
         return switch (obj) {
             case null -> 0.0;
@@ -69,6 +106,9 @@ public class LogEventTypedGetter extends BaseLogEventGetter {
      * @return The value of the argument.
      */
     public boolean getBooleanArgument(int oneBasedIndex) {
+        if(getPrimitiveArgumentType(oneBasedIndex) == LogEvent.BOOLEAN_ARG) {
+            return getPrimitiveArgumentValue(oneBasedIndex) != 0;
+        }
         Object obj = getArgumentAsObject(oneBasedIndex);
         return switch (obj) {
             case null -> false;
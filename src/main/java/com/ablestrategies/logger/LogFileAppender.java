@@ -1,11 +1,14 @@
 package com.ablestrategies.logger;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.SortedMap;
+import java.util.List;
 
 /**
  * LogfileAppender - Log writer that outputs events in textual form to rolling logfiles
@@ -15,25 +18,53 @@ import java.util.SortedMap;
  *  <li> jlogger.logfile.name     "jlog.log"      </li>
  *  <li> jlogger.logfile.kmaxsize "100"           </li>
  *  <li> jlogger.logfile.backups  "10"            </li>
+ *  <li> jlogger.logfile.kbuffer  "256"           </li>
+ *  <li> jlogger.logfile.flush    "PerBatch"      See FlushPolicy.java </li>
  * </ul>
+ * Events are encoded to UTF-8 as they are buffered, into a few direct ByteBuffers, and each batch is
+ * then written with one gathering write to a FileChannel. So the size of a file is known to the byte,
+ * and a file never grows beyond kfilesize, unless a single event is bigger than that.
  **/
 public class LogFileAppender implements IAppender {
 
-    private static final String FILE_TEMPLATE = "%s%03d%s";
+    /** Number of direct ByteBuffers that the output is gathered from. */
+    private static final int OUTPUT_BUFFERS = 4;
 
-    private static final int FLUSH_EVERY = 50;
+    /** Largest eventBuffer that is kept for re-use. */
+    private static final int MAX_RETAINED_EVENT_CHARS = 64 * 1024;
 
     /** We need this to format LogEvents into textual messages. */
     private final TextFormatter textFormatter;
 
+    /** Bytes written to the current file, including the header, but not those that are pending. */
     private long currentFileSize;
-    private FileWriter writer;
+    private FileChannel channel;
 
-    private String rootFilename;
+    /** The logfile and its backups. */
+    private final LogFileSet fileSet;
     private final long maxFileSize;
-    private final long maxBackups;
 
-    private int writesSinceFlush = 0;
+    /** Decides when to write and when to force, per the FlushPolicy. */
+    private final FileFlusher flusher;
+
+    /** The event that is being formatted. */
+    private final StringBuilder eventBuffer = new StringBuilder(1024);
+
+    /** Encodes eventBuffer to UTF-8, re-using its bytes. */
+    private final Utf8Encoder encoder = new Utf8Encoder(1024);
+
+    /** Encoded events not yet written, so that a whole batch can be written at once. */
+    private final ByteBuffer[] outputBuffers = new ByteBuffer[OUTPUT_BUFFERS];
+
+    /** Index of the output buffer that is being filled. */
+    private int outputBufferIndex = 0;
+
+    /** Bytes in the output buffers, not yet written. */
+    private long pendingBytes = 0;
+
+    /** Bytes in the header of the current file. */
+    private long headerSize = 0;
+
     private boolean shutdownInProgress = false;
 
     /**
@@ -43,14 +74,14 @@ public class LogFileAppender implements IAppender {
     @SuppressWarnings("unused")
     public LogFileAppender(IConfiguration configuration) {
         String prefix = configuration.getString("jlogger.logfile.prefix", "@t @c [@L]: ");
-        rootFilename = configuration.getString("jlogger.logfile.name", "jlog.log").trim();
+        fileSet = new LogFileSet(configuration);
         maxFileSize = configuration.getLong("jlogger.logfile.kfilesize", 100) * 1024;
-        maxBackups = Math.min(configuration.getLong("jlogger.logfile.backups", 10), 500);
-        rootFilename = rootFilename.replace("\\", "/");
-        if(rootFilename.indexOf(".") < 1 || rootFilename.indexOf(".") < rootFilename.lastIndexOf("/")) {
-            rootFilename = rootFilename + ".log";
+        long bufferSize = Math.max(configuration.getLong("jlogger.logfile.kbuffer", 256), OUTPUT_BUFFERS) * 1024;
+        for(int index = 0; index < OUTPUT_BUFFERS; index++) {
+            outputBuffers[index] = ByteBuffer.allocateDirect((int)Math.min(bufferSize / OUTPUT_BUFFERS, 64 * 1024 * 1024));
         }
         textFormatter = new TextFormatter(prefix);
+        flusher = new FileFlusher(configuration, this, this::writePending, this::force);
         rolloverAndOpenLogFile();
     }
 
@@ -58,21 +89,126 @@ public class LogFileAppender implements IAppender {
      * Output a LogEvent to the log.
      * @param logEvent To be formatted and written.
      */
-    public void append(LogEvent logEvent) {
-        String message  = textFormatter.format(logEvent) + System.lineSeparator();
-        if(currentFileSize + message.length() > maxFileSize) {
+    public synchronized void append(LogEvent logEvent) {
+        int bytes = bufferEvent(logEvent);
+        flusher.appended(bytes, logEvent.level == Level.Error);
+    }
+
+    /**
+     * Output a batch of LogEvents to the log, with (usually) one write.
+     * @param logEvents To be formatted and written.
+     */
+    public synchronized void appendBatch(List<LogEvent> logEvents) {
+        long bytes = 0;
+        boolean hasError = false;
+        for(LogEvent logEvent : logEvents) {
+            bytes += bufferEvent(logEvent);
+            hasError |= logEvent.level == Level.Error;
+        }
+        flusher.appended(bytes, hasError);
+    }
+
+    /**
+     * Format a LogEvent ahead of append(), caching the result in it.
+     * @param logEvent To be formatted.
+     * @implNote Called by a FormattingStage worker, if any.
+     */
+    public void prepare(LogEvent logEvent) {
+        textFormatter.format(logEvent);
+    }
+
+    /**
+     * Format and encode a LogEvent into the output buffers, first writing what's there and rolling over if the
+     * file would be too big.
+     * @param logEvent To be formatted.
+     * @return Number of bytes buffered.
+     */
+    private int bufferEvent(LogEvent logEvent) {
+        eventBuffer.setLength(0);
+        textFormatter.formatTo(logEvent, eventBuffer);
+        eventBuffer.append(System.lineSeparator());
+        ByteBuffer bytes = encoder.encode(eventBuffer);
+        if(currentFileSize + pendingBytes + bytes.remaining() > maxFileSize && hasEvents()) {
+            writePending();
             rolloverAndOpenLogFile();
         }
-        currentFileSize += message.length();
+        if(eventBuffer.capacity() > MAX_RETAINED_EVENT_CHARS) {
+            eventBuffer.setLength(0);
+            eventBuffer.trimToSize(); // don't hang on to the chars of one huge event
+        }
+        int byteCount = bytes.remaining();
+        putPending(bytes);
+        return byteCount;
+    }
+
+    /**
+     * Is there anything besides the header in the current file, whether written or pending?
+     * @return true if there are events.
+     */
+    private boolean hasEvents() {
+        return currentFileSize + pendingBytes > headerSize;
+    }
+
+    /**
+     * Add encoded bytes to the output buffers, writing them first if they are full.
+     * @param bytes To be added, from position to limit.
+     */
+    private void putPending(ByteBuffer bytes) {
+        while(bytes.hasRemaining()) {
+            ByteBuffer outputBuffer = outputBuffers[outputBufferIndex];
+            if(!outputBuffer.hasRemaining()) {
+                if(++outputBufferIndex == OUTPUT_BUFFERS) {
+                    writePending();
+                }
+                continue;
+            }
+            int count = Math.min(bytes.remaining(), outputBuffer.remaining());
+            int limit = bytes.limit();
+            bytes.limit(bytes.position() + count);
+            outputBuffer.put(bytes);
+            bytes.limit(limit);
+            pendingBytes += count;
+        }
+    }
+
+    /**
+     * Write the output buffers to the file, with one gathering write (unless the OS writes less), and empty them.
+     */
+    private void writePending() {
+        if(pendingBytes == 0) {
+            return;
+        }
+        int bufferCount = Math.min(outputBufferIndex + 1, OUTPUT_BUFFERS);
+        for(int index = 0; index < bufferCount; index++) {
+            outputBuffers[index].flip();
+        }
         try {
-            writer.write(message);
-            if(++writesSinceFlush >= FLUSH_EVERY) {
-                writer.flush();
-                writesSinceFlush = 0;
+            long written = 0;
+            while(channel != null && written < pendingBytes) {
+                written += channel.write(outputBuffers, 0, bufferCount);
             }
+            currentFileSize += written;
         } catch (IOException e) {
             Support.handleLoggerError(true, "LogfileAppender cannot write to file", e);
         }
+        for(int index = 0; index < bufferCount; index++) {
+            outputBuffers[index].clear();
+        }
+        outputBufferIndex = 0;
+        pendingBytes = 0;
+    }
+
+    /**
+     * Force what's written out to the device.
+     */
+    private void force() {
+        try {
+            if(channel != null) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            Support.handleLoggerError(true, "LogfileAppender cannot force to file", e);
+        }
     }
 
     /**
@@ -82,92 +218,40 @@ public class LogFileAppender implements IAppender {
         if(shutdownInProgress) {
             return;
         }
-        if(writer != null) {
+        if(channel != null) {
+            flusher.closing();
             try {
-                writer.close();
+                channel.close();
             } catch (IOException e) {
                 Support.handleLoggerError(false, "LogFileAppender: Trouble closing log", e);
             }
-            writer = null;
+            channel = null;
         }
-        String filename = rolloverBackups();
+        String filename = fileSet.rollover();
         String header = "###LogFile### " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         try {
-            writer = new FileWriter(filename);
-            writer.write(header + System.lineSeparator());
+            channel = FileChannel.open(Paths.get(filename),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
             System.out.println("LogfileAppender writing to: " + filename);
         } catch (IOException e) {
             System.err.println(e.getMessage());
         }
         currentFileSize = 0;
+        // not via the encoder, as its bytes may hold the event that caused this rollover
+        ByteBuffer headerBytes = ByteBuffer.wrap((header + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        headerSize = headerBytes.remaining();
+        putPending(headerBytes);
         if(shutdownInProgress) {
             Support.handleLoggerError(false, "LogFileAppender - Shutdown may have lost events.", null);
         }
     }
 
     /**
-     * Handle rollover of logfile backups.
-     * @return new "latest" filename,
+     * Does our prefix output the calling class or method?
+     * @return true if LogEvents must capture their caller.
      */
-    private String rolloverBackups() {
-        SortedMap<Long, File> sortedFilesMap = new java.util.TreeMap<>();
-        String filenameWithoutSuffix = rootFilename.substring(0, rootFilename.lastIndexOf("."));
-        String filenameSuffix = rootFilename.substring(rootFilename.lastIndexOf("."));
-        boolean success1 = getFilesSortedByAge(filenameWithoutSuffix, filenameSuffix, sortedFilesMap);
-        boolean success2 = rolloverBackups(sortedFilesMap, filenameWithoutSuffix, filenameSuffix);
-        if(!success1 || !success2) {
-            Support.handleLoggerError(true, "LogFileAppender - Error: A backup file(s) may be locked or read-only.", null);
-        }
-        return String.format(FILE_TEMPLATE, filenameWithoutSuffix, maxBackups - 1, filenameSuffix);
-    }
-
-    /**
-     * Get sorted log/backup files, renaming each with an "x" prefix as we go.
-     * @param filenameWithoutSuffix path and filename, no suffix.
-     * @param filenameSuffix suffix, preceded by a dot.
-     * @param sortedFilesMap (out) To be populated with sorted files by this method.
-     * @return Success, false if there is a problem renaming files.
-     */
-    private boolean getFilesSortedByAge(String filenameWithoutSuffix, String filenameSuffix, SortedMap<Long, File> sortedFilesMap) {
-        boolean success = true;
-        for(int backupNumber = 0; backupNumber < maxBackups; backupNumber++) {
-            String filename = String.format(FILE_TEMPLATE, filenameWithoutSuffix, backupNumber, filenameSuffix);
-            long lastModified = backupNumber;
-            File theFile = new File(filename);
-            if(theFile.exists()) {
-                lastModified =  theFile.lastModified();
-                File renameTo = new File("x" + filename);
-                renameTo.delete(); // just in case
-                if(backupNumber != 0) {
-                    success &= theFile.renameTo(renameTo);
-                    theFile = renameTo; // because the file gets renamed, but theFile does not reflect that
-                }
-            }
-            sortedFilesMap.put(lastModified, theFile);
-        }
-        return success;
-    }
-
-    /**
-     * Rename log/backup files based on their age. i.e. jlog000.log ... jlog009.log.
-     * @param sortedFilesMap As returned by getFilesSortedByAge.
-     * @param filenameWithoutSuffix path and filename, no suffix.
-     * @param filenameSuffix suffix, preceded by a dot.
-     * @return Success, false if there is a problem renaming files.
-     */
-    private boolean rolloverBackups(SortedMap<Long, File> sortedFilesMap, String filenameWithoutSuffix, String filenameSuffix) {
-        boolean success = true;
-        File[] sortedFiles = sortedFilesMap.sequencedValues().toArray(new File[0]);
-        for(int fileNumber = 1; fileNumber < maxBackups; fileNumber++) {
-            File theFile = sortedFiles[fileNumber];
-            String newFilename = String.format("%s%03d%s", filenameWithoutSuffix, fileNumber - 1, filenameSuffix);
-            if(theFile.exists()) {
-                File renameTo = new File(newFilename);
-                renameTo.delete(); // just in case
-                success &= theFile.renameTo(new File(newFilename));
-            }
-        }
-        return success;
+    public boolean isCallerInfoNeeded() {
+        return textFormatter.isCallerInfoNeeded();
     }
 
     /**
@@ -180,12 +264,18 @@ public class LogFileAppender implements IAppender {
     /**
      * This will be called after the last log message has been written.
      */
-    public void close() {
+    public synchronized void close() {
+        flusher.closing();
+        flusher.close();
         try {
-            writer.close();
+            if(channel != null) {
+                channel.close();
+            }
         } catch (IOException e) {
             // at this point, we can only ignore it.
         }
+        fileSet.close();
+        textFormatter.close();
     }
 
 }
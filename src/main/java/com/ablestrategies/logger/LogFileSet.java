@@ -0,0 +1,312 @@
+package com.ablestrategies.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LogFileSet - A logfile and its backups, as rolled over by the file appenders.
+ * <p/>
+ * Each file gets the next index, i.e. jlog000.log, jlog001.log, ... jlog1234.log, so the newest is always
+ * the highest numbered, and a rollover just opens the next one, without renaming anything. The index range
+ * is kept in a small manifest (i.e. jlog.manifest) so that it carries on from there after a restart.
+ * <p/>
+ * The rest is done by the housekeeping thread, at a low priority, so the AppenderThread (and thus the
+ * producers) do not wait on the file system...
+ * <ul>
+ *  <li> Compressing each file once it is rolled over, if enabled, to i.e. jlog000.log.gz. It is written in
+ *       sync-flushed blocks, so even a partly written one can be read. </li>
+ *  <li> Deleting the oldest files, beyond the number of backups, or the total size of the backups, or the
+ *       maximum age. (the newest file is always kept) </li>
+ *  <li> Rewriting the manifest. </li>
+ * </ul>
+ * Configuration Settings...<ul>
+ *  <li> jlogger.logfile.name        "jlog.log"  </li>
+ *  <li> jlogger.logfile.backups     "10"        Most files, including the newest </li>
+ *  <li> jlogger.logfile.compress    "false"     gzip the backups </li>
+ *  <li> jlogger.logfile.kmaxtotal   "0"         Most KB of backups, 0 for no limit </li>
+ *  <li> jlogger.logfile.maxagehours "0"         Oldest backup to keep, 0 for no limit </li>
+ * </ul>
+ * @implNote rollover() and close() are called by the appender's thread. The oldest index is only touched
+ * by the housekeeping thread, after the ctor.
+ */
+class LogFileSet {
+
+    private static final String FILE_TEMPLATE = "%s%03d%s";
+
+    /** Suffix of compressed files, after the usual suffix. */
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    /** Bytes per sync-flushed block of a compressed file. */
+    private static final int COMPRESS_BLOCK = 64 * 1024;
+
+    /** Most milliseconds that close() waits for the housekeeping. */
+    private static final long CLOSE_WAIT_MILLIS = 5000;
+
+    /** The housekeeping thread, shared by all LogFileSets. (one thread, so each set's tasks stay in order) */
+    private static final ExecutorService housekeeper = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JLogger-Housekeeper");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final String filenameWithoutSuffix;
+    private final String filenameSuffix;
+    private final long maxBackups;
+    private final boolean compress;
+    private final long maxTotalBytes;
+    private final long maxAgeMillis;
+
+    /** The manifest, holding the oldest and newest index. */
+    private final Path manifest;
+
+    /** Index of the oldest file that may still exist. (housekeeping thread only) */
+    private long oldestIndex;
+
+    /** Index of the newest file, -1 before the first rollover. */
+    private long newestIndex;
+
+    /** Files before this index have been compressed, if compress. (housekeeping thread only) */
+    private long compressFromIndex;
+
+    /**
+     * Ctor.
+     * @param configuration Source of settings.
+     */
+    LogFileSet(IConfiguration configuration) {
+        String rootFilename = configuration.getString("jlogger.logfile.name", "jlog.log").trim();
+        maxBackups = Math.max(1, Math.min(configuration.getLong("jlogger.logfile.backups", 10), 500));
+        compress = configuration.getString("jlogger.logfile.compress", "false").equalsIgnoreCase("true");
+        maxTotalBytes = configuration.getLong("jlogger.logfile.kmaxtotal", 0) * 1024;
+        maxAgeMillis = configuration.getLong("jlogger.logfile.maxagehours", 0) * 3_600_000;
+        rootFilename = rootFilename.replace("\\", "/");
+        if(rootFilename.indexOf(".") < 1 || rootFilename.indexOf(".") < rootFilename.lastIndexOf("/")) {
+            rootFilename = rootFilename + ".log";
+        }
+        filenameWithoutSuffix = rootFilename.substring(0, rootFilename.lastIndexOf("."));
+        filenameSuffix = rootFilename.substring(rootFilename.lastIndexOf("."));
+        manifest = new File(filenameWithoutSuffix + ".manifest").toPath();
+        if(!readManifest()) {
+            scanForFiles();
+        }
+        // in case files were opened after the manifest was last written
+        while(getFile(newestIndex + 1).exists()) {
+            newestIndex++;
+        }
+        compressFromIndex = oldestIndex;
+    }
+
+    /**
+     * Start the next file, and have the housekeeping thread compress and prune the older ones.
+     * @return new "latest" filename.
+     */
+    String rollover() {
+        long index = ++newestIndex;
+        housekeeper.execute(() -> housekeep(index));
+        return getFile(index).getPath();
+    }
+
+    /**
+     * Wait (briefly) for the housekeeping, so that the manifest is up-to-date.
+     */
+    void close() {
+        Future<?> done = housekeeper.submit(() -> {});
+        try {
+            done.get(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Support.handleLoggerError(false, "LogFileSet - Housekeeping did not finish", e);
+        }
+    }
+
+    /**
+     * Get the file for an index.
+     * @param index Index of the file.
+     * @return The file, which may or may not exist.
+     */
+    File getFile(long index) {
+        return new File(String.format(FILE_TEMPLATE, filenameWithoutSuffix, index, filenameSuffix));
+    }
+
+    /**
+     * Get the compressed file for an index.
+     * @param index Index of the file.
+     * @return The file, which may or may not exist.
+     */
+    File getCompressedFile(long index) {
+        return new File(getFile(index).getPath() + COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * Compress the files before the newest, if enabled, delete those beyond the retention limits, and record
+     * the new range in the manifest.
+     * @param newest Index of the file that was just started.
+     * @implNote Runs on the housekeeping thread.
+     */
+    private void housekeep(long newest) {
+        boolean success = true;
+        for(long keepFrom = getKeepFrom(newest); oldestIndex < keepFrom; oldestIndex++) {
+            File file = getFile(oldestIndex);
+            File compressedFile = getCompressedFile(oldestIndex);
+            success &= !file.exists() || file.delete();
+            success &= !compressedFile.exists() || compressedFile.delete();
+        }
+        if(!success) {
+            Support.handleLoggerError(true, "LogFileSet - Error: A backup file(s) may be locked or read-only.", null);
+        }
+        if(compress) {
+            for(compressFromIndex = Math.max(compressFromIndex, oldestIndex); compressFromIndex < newest; compressFromIndex++) {
+                compress(compressFromIndex);
+            }
+        }
+        writeManifest(newest);
+    }
+
+    /**
+     * Get the oldest index to keep, per the number of backups, their total size, and their age.
+     * @param newest Index of the file that was just started, which is always kept.
+     * @return The first index to keep.
+     */
+    private long getKeepFrom(long newest) {
+        long keepFrom = Math.max(oldestIndex, newest - maxBackups + 1);
+        if(maxTotalBytes <= 0 && maxAgeMillis <= 0) {
+            return keepFrom;
+        }
+        long oldestModified = maxAgeMillis > 0 ? System.currentTimeMillis() - maxAgeMillis : Long.MIN_VALUE;
+        long totalBytes = 0;
+        for(long index = newest - 1; index >= keepFrom; index--) {
+            File file = getCompressedFile(index).exists() ? getCompressedFile(index) : getFile(index);
+            totalBytes += file.length();
+            boolean tooBig = maxTotalBytes > 0 && totalBytes > maxTotalBytes;
+            if(tooBig || (file.exists() && file.lastModified() < oldestModified)) {
+                return index + 1;
+            }
+        }
+        return keepFrom;
+    }
+
+    /**
+     * Compress a file to gzip, in sync-flushed blocks, then delete the original.
+     * @param index Index of the file.
+     * @implNote Runs on the housekeeping thread. If it is cut short, it is re-done the next time.
+     */
+    private void compress(long index) {
+        File file = getFile(index);
+        if(!file.exists()) {
+            return;
+        }
+        File compressedFile = getCompressedFile(index);
+        byte[] block = new byte[COMPRESS_BLOCK];
+        try(InputStream input = new FileInputStream(file);
+                GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(compressedFile), COMPRESS_BLOCK, true)) {
+            int count;
+            while((count = input.readNBytes(block, 0, block.length)) > 0) {
+                output.write(block, 0, count);
+                output.flush(); // a sync flush, so that all of this block can be read back
+            }
+        } catch (IOException e) {
+            Support.handleLoggerError(false, "LogFileSet - Cannot compress " + file, e);
+            compressedFile.delete();
+            return;
+        }
+        compressedFile.setLastModified(file.lastModified()); // for the maximum age
+        if(!file.delete()) {
+            Support.handleLoggerError(false, "LogFileSet - Cannot delete " + file + " after compressing it", null);
+        }
+    }
+
+    /**
+     * Get the index range from the manifest.
+     * @return false if there is no manifest, or it cannot be read.
+     */
+    private boolean readManifest() {
+        if(!Files.exists(manifest)) {
+            return false;
+        }
+        try {
+            oldestIndex = -1;
+            newestIndex = -1;
+            for(String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                if(line.startsWith("oldest=")) {
+                    oldestIndex = Long.parseLong(line.substring(7).trim());
+                } else if(line.startsWith("newest=")) {
+                    newestIndex = Long.parseLong(line.substring(7).trim());
+                }
+            }
+            return oldestIndex >= 0 && newestIndex >= oldestIndex;
+        } catch (IOException | NumberFormatException e) {
+            Support.handleLoggerError(false, "LogFileSet - Cannot read " + manifest, e);
+            return false;
+        }
+    }
+
+    /**
+     * Record the index range in the manifest, replacing it in one step.
+     * @param newest Index of the newest file.
+     * @implNote Runs on the housekeeping thread.
+     */
+    private void writeManifest(long newest) {
+        String content = "# JLogger logfiles, by index\noldest=" + oldestIndex + "\nnewest=" + newest + "\n";
+        Path temporary = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try {
+            Files.writeString(temporary, content, StandardCharsets.UTF_8);
+            Files.move(temporary, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Support.handleLoggerError(false, "LogFileSet - Cannot write " + manifest, e);
+        }
+    }
+
+    /**
+     * Without a manifest, find the index range from the files that are there. (i.e. from an earlier version)
+     */
+    private void scanForFiles() {
+        oldestIndex = Long.MAX_VALUE;
+        newestIndex = -1;
+        File prototype = new File(filenameWithoutSuffix);
+        File directory = prototype.getAbsoluteFile().getParentFile();
+        String namePrefix = prototype.getName();
+        String[] names = directory == null ? null : directory.list();
+        for(String name : names == null ? new String[0] : names) {
+            long index = parseIndex(name, namePrefix);
+            if(index >= 0) {
+                oldestIndex = Math.min(oldestIndex, index);
+                newestIndex = Math.max(newestIndex, index);
+            }
+        }
+        if(newestIndex < 0) {
+            oldestIndex = 0;
+        }
+    }
+
+    /**
+     * Get the index from the name of one of our files.
+     * @param name Filename, without the path.
+     * @param namePrefix Filename before the index, i.e. "jlog".
+     * @return The index, or -1 if it's not one of ours.
+     */
+    private long parseIndex(String name, String namePrefix) {
+        if(name.endsWith(filenameSuffix + COMPRESSED_SUFFIX)) {
+            name = name.substring(0, name.length() - COMPRESSED_SUFFIX.length());
+        }
+        if(!name.startsWith(namePrefix) || !name.endsWith(filenameSuffix)) {
+            return -1;
+        }
+        String digits = name.substring(namePrefix.length(), name.length() - filenameSuffix.length());
+        if(digits.isEmpty() || digits.length() > 18 || !digits.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return Long.parseLong(digits);
+    }
+
+}
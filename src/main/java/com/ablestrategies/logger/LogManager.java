@@ -1,9 +1,11 @@
 package com.ablestrategies.logger;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * LogManager - Provides core functionality.
@@ -57,26 +59,44 @@ import java.util.Map;
  *     previous setLevel() calls. </li>
  * </ul>
  * In other words, setLevel() works on two fronts. When it is called, it sets the level
- * of every existing Logger and keeps track of this in a Map named historyOfSetLevel.
- * Then, when a new Logger is instantiated, that historyOfSetLevel will be re-evaluated
- * for that new Logger only.
- * <br/><br/>
- * Maybe you can think of a better way to accomplish this without adversely impacting the
- * performance of Logger.log() or its shortcuts.
+ * of every existing Logger and keeps track of this in a trie of name segments, named
+ * levelTrie. Then, when a new Logger is instantiated, only the settings along its name
+ * in that trie will be evaluated for that new Logger. (see LevelTrie)
+ * <h4> Thread safety. </h4>
+ * getLogger() looks up existing Loggers without locking. Creating a new Logger and setLevel()
+ * do take a lock (on levelTrie), so that a new Logger cannot miss a setLevel() that happens at the same time.
+ * Logger levels are volatile, so a setLevel() is seen right away by every thread.
  */
 public class LogManager {
 
-    /** Singleton, at least for now. */
-    private static LogManager instance = null;
+    /** Singleton, at least for now. Created on first use, safely, by the class loader. */
+    private static class InstanceHolder {
+        private static final LogManager INSTANCE = new LogManager(1);
+    }
+
+    /** Slots in the LogEvent formatters cache, by formatter signature. (see BaseTextFormatter, also the lock) */
+    private static final Map<String, Integer> formatterSlots = new HashMap<>();
+
+    /** Number of formatter slots assigned so far, whether or not they have since been released. */
+    private static int formatterSlotCount = 0;
+
+    /** Slots released by unregisterFormatter(), to be re-used before any new ones. */
+    private static final Deque<Integer> freeFormatterSlots = new ArrayDeque<>();
+
+    /** Set when a formatter did not get a slot, so that is only reported once until a slot is released. */
+    private static boolean formatterSlotsReported = false;
+
+    /** Number of formatters registered to each slot. */
+    private static final AtomicIntegerArray formatterSlotUsers = new AtomicIntegerArray(LogEvent.FORMATTER_SLOTS);
 
     /** Default level for new Loggers. */
     private final Level defaultLevel;
 
     /** A map of all known Loggers. */
-    private final Map<String, Logger> allLoggers = new HashMap<>();
+    private final Map<String, Logger> allLoggers = new ConcurrentHashMap<>();
 
-    /** A map of the setLevel() history. */
-    private final List<KeyValuePair<String, Level>> historyOfSetLevel = new LinkedList<>();
+    /** The setLevel() settings and all known Loggers. (also the lock for creating Loggers and setLevel) */
+    private final LevelTrie levelTrie = new LevelTrie();
 
     /** Background appender thread. */
     private final AppenderThread appenderThread;
@@ -90,6 +110,10 @@ public class LogManager {
         IConfiguration configuration = new PropsConfiguration();
         String level = configuration.getString("jlogger.default.level", "Warn");
         defaultLevel = Level.fromName(level);
+        ObjectDumper.MAX_DUMP_CHARS = (int)configuration.getLong("jlogger.dump.maxchars", ObjectDumper.MAX_DUMP_CHARS);
+        if(configuration.getString("jlogger.clock", "System").equalsIgnoreCase("Coarse")) {
+            LogEvent.clock = new CoarseClock(configuration.getLong("jlogger.clock.tickmillis", CoarseClock.TICK_MILLIS));
+        }
         this.appenderThread = new AppenderThread(configuration);
         this.appenderThread.setDaemon(true);
         this.appenderThread.start();
@@ -110,10 +134,7 @@ public class LogManager {
      * @return Existing LogManager.
      */
     public static LogManager getInstance() {
-        if (instance == null) {
-            instance = new LogManager(1);
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     /**
@@ -148,9 +169,13 @@ public class LogManager {
         }
         Logger logger = allLoggers.get(packageClassName);
         if (logger == null) {
-            logger = new Logger(this, packageClassName, defaultLevel);
-            applyHistoryOfSetLevel(logger);
-            allLoggers.put(packageClassName, logger);
+            synchronized (levelTrie) { // so that a concurrent setLevel() cannot be missed
+                logger = allLoggers.computeIfAbsent(packageClassName, name -> {
+                    Logger newLogger = new Logger(this, name, defaultLevel);
+                    levelTrie.addLogger(newLogger);
+                    return newLogger;
+                });
+            }
         }
         return logger;
     }
@@ -164,34 +189,145 @@ public class LogManager {
         if(packageClassName == null) {
             packageClassName = "";
         }
-        final String pkgClassName = packageClassName;
-        allLoggers.entrySet().stream()
-            .filter(entry -> entry.getKey().startsWith(pkgClassName))
-                .forEach(entry -> entry.getValue().setLevel(level));
-        historyOfSetLevel.add(new KeyValuePair<>(packageClassName, level));
+        synchronized (levelTrie) {
+            levelTrie.setLevel(level, packageClassName);
+        }
     }
 
     /**
-     * Put the log message into a LogEvent and enqueue it to send to AppenderThread.
+     * Put the log message into a (re-used) LogEvent and enqueue it to send to AppenderThread.
      * @param level The priority/severity of the message.
      * @param message The message, optionally containing replacement symbols.
      * @param args Vararg values to substitute for certain replacement symbols.
      */
     public void write(Level level, String message, Object... args) {
-        LogEvent event = new LogEvent(level, message, args);
-        appenderThread.appendEvent(event);
+        boolean captureCaller = appenderThread.isCallerInfoNeeded() || TextFormatter.referencesCallerInfo(message);
+        LogEvent event = appenderThread.claimEvent(level);
+        if(event != null) { // else dropped, per OverflowPolicy
+            event.populate(captureCaller, level, message, args);
+            appenderThread.publishEvent(event);
+        }
+    }
+
+    /**
+     * Claim a (re-used) LogEvent and populate it, except for its arguments, which the caller will then set.
+     * @param level The priority/severity of the message.
+     * @param message The message, optionally containing replacement symbols.
+     * @return The event, to be passed to publishEvent() once its arguments are set, or null if it was dropped.
+     * @apiNote This is for the Logger's primitive overloads, which store their arguments without boxing.
+     */
+    LogEvent claimEvent(Level level, String message) {
+        boolean captureCaller = appenderThread.isCallerInfoNeeded() || TextFormatter.referencesCallerInfo(message);
+        LogEvent event = appenderThread.claimEvent(level);
+        if(event != null) { // else dropped, per OverflowPolicy
+            event.populate(captureCaller, level, message, null);
+        }
+        return event;
+    }
+
+    /**
+     * Put a deferred message into a (re-used) LogEvent and enqueue it, to be supplied on the AppenderThread.
+     * @param level The priority/severity of the message.
+     * @param messageSupplier Supplies the message, which may contain replacement symbols.
+     * @implNote The caller is always captured, as the message may turn out to use @c, @m, or @p, and by
+     * the time it is supplied, on the AppenderThread, the caller is long gone.
+     */
+    void write(Level level, DeferredSupplier<String> messageSupplier) {
+        LogEvent event = appenderThread.claimEvent(level);
+        if(event != null) { // else dropped, per OverflowPolicy
+            event.populate(true, level, null, null);
+            event.messageSupplier = messageSupplier;
+            appenderThread.publishEvent(event);
+        }
+    }
+
+    /**
+     * Send a LogEvent from claimEvent() on to the AppenderThread.
+     * @param event The claimed and populated event.
+     */
+    void publishEvent(LogEvent event) {
+        appenderThread.publishEvent(event);
+    }
+
+    /**
+     * Get the slot in the LogEvent formatters cache for a formatter signature, assigning one if it is new.
+     * @param formatterSignature Formatter class name + settings. i.e. "XxxxFormatter:[Prefix @t]:3"
+     * @return The slot, shared by all formatters with the same signature, or -1 if the slots are used up.
+     * @apiNote static method, as formatters are created while the LogManager is being created.
+     * @implNote A formatter without a slot still works, its results are just not shared. Running out is reported
+     * (once) as it usually means formatters are being created and not closed. (see unregisterFormatter)
+     */
+    static int registerFormatter(String formatterSignature) {
+        synchronized (formatterSlots) {
+            Integer formatterSlot = formatterSlots.get(formatterSignature);
+            if(formatterSlot == null) {
+                if(!freeFormatterSlots.isEmpty()) {
+                    formatterSlot = freeFormatterSlots.pop();
+                } else if(formatterSlotCount < LogEvent.FORMATTER_SLOTS) {
+                    formatterSlot = formatterSlotCount++;
+                } else {
+                    if(!formatterSlotsReported) {
+                        formatterSlotsReported = true;
+                        Support.handleLoggerError(false, "All " + LogEvent.FORMATTER_SLOTS +
+                                " formatter cache slots are in use, results of " + formatterSignature +
+                                " (and any other new formatters) will not be shared", null);
+                    }
+                    return -1;
+                }
+                formatterSlots.put(formatterSignature, formatterSlot);
+            }
+            formatterSlotUsers.incrementAndGet(formatterSlot);
+            return formatterSlot;
+        }
     }
 
     /**
-     * Call this to bring a new Logger up-to-date with setLevel() calls.
-     * @param logger To be brought up-to-date.
+     * Release a formatter's registration, freeing the slot for re-use once no formatter has its signature.
+     * @param formatterSignature As passed to registerFormatter(), which must have returned a slot.
+     * @apiNote static method
+     * @implNote Results cached in a released slot stay on events that were formatted before the release. As
+     * formatters are closed with their appenders, after the last event, a later signature will not see them.
      */
-    private void applyHistoryOfSetLevel(Logger logger) {
-        for(KeyValuePair<String, Level> entry : historyOfSetLevel) {
-            if(logger.getPackageClassName().startsWith(entry.getKey())) {
-                logger.setLevel(entry.getValue());
+    static void unregisterFormatter(String formatterSignature) {
+        synchronized (formatterSlots) {
+            Integer formatterSlot = formatterSlots.get(formatterSignature);
+            if(formatterSlot != null && formatterSlotUsers.decrementAndGet(formatterSlot) == 0) {
+                formatterSlots.remove(formatterSignature);
+                freeFormatterSlots.push(formatterSlot);
+                formatterSlotsReported = false;
             }
         }
     }
 
+    /**
+     * Find out whether more than one formatter has registered for a slot, so a cached result may be re-used.
+     * @param formatterSlot Slot, per registerFormatter().
+     * @return true if the slot is shared.
+     * @apiNote static method
+     */
+    static boolean isFormatterSlotShared(int formatterSlot) {
+        return formatterSlot >= 0 && formatterSlotUsers.get(formatterSlot) > 1;
+    }
+
+    /**
+     * Replace the source of timestamps for new events, i.e. with a ManualClock for testing.
+     * @param clock The new clock. (a replaced CoarseClock is closed)
+     */
+    public void setClock(IClock clock) {
+        IClock oldClock = LogEvent.clock;
+        LogEvent.clock = clock;
+        if(oldClock instanceof CoarseClock coarseClock && oldClock != clock) {
+            coarseClock.close();
+        }
+    }
+
+    /**
+     * Get one of the configured appenders, i.e. to check the backlog of a QueuedAppender.
+     * @param className Full name of the Appender class, as in jlogger.appenders.list. (without ":thread", etc.)
+     * @return The appender, or null if there is no such appender.
+     */
+    public IAppender getAppender(String className) {
+        return appenderThread.getAppender(className);
+    }
+
 }
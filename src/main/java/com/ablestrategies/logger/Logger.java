@@ -1,5 +1,7 @@
 package com.ablestrategies.logger;
 
+import java.util.function.Supplier;
+
 /**
  * Logger - This is a "named" filter to allow the Log Level to be set hierarchically.
  * <h4> How to use this: </h4>
@@ -34,6 +36,25 @@ package com.ablestrategies.logger;
  * </ul>
  * @apiNote You can pass an exception as arg1 as in (3) above, but please consider that
  * the exception will be arg 1 so the first argument following that will be arg 2.
+ * <h4> Primitive arguments. </h4>
+ * logPrimitive() and its shortcuts TRACEp() to ERRORp() take 1 to 4 long, double, or boolean
+ * arguments, such as INFOp(String, long) or DIAGp(String, long, double), or 1 char or float.
+ * These store the values in the (re-used) LogEvent without boxing them or allocating a varargs
+ * array, so they are garbage-free. They have their own names so that Java never picks them
+ * instead of the varargs methods, which keep logging boxed arguments (null or not) as before.
+ * @apiNote With 2 to 4 arguments, a char is widened to a long and a float to a double, so
+ * they are logged as a number, and as 0.10000000149011612 for 0.1f. A boxed argument is
+ * unboxed, so a null one throws a NullPointerException. Use the varargs methods for those.
+ * <h4> Lazy messages and arguments. </h4>
+ * To avoid computing a message or arguments that will be filtered out, pass Suppliers.
+ * They are called only if the Level check passes. By default they are called right away,
+ * on the caller's thread. Wrap one in Logger.defer() to have the AppenderThread call it
+ * instead. (see DeferredSupplier)
+ * <ul>
+ *  <li> logger.DIAG(() -> "State: " + expensiveSnapshot()); </li>
+ *  <li> logger.DIAG("State: @1t", this::expensiveSnapshot); </li>
+ *  <li> logger.DIAG("State: @1t", Logger.defer(this::expensiveSnapshot)); </li>
+ * </ul>
  */
 public class Logger {
 
@@ -43,8 +64,8 @@ public class Logger {
     /** The name of this Logger, typically a dot-delimited package and class name. */
     private final String packageClassName;
 
-    /** The current priority/severity level for filtering/discarding messages of lower levels. */
-    private Level level;
+    /** The current priority/severity level for filtering/discarding messages of lower levels. (see LogManager) */
+    private volatile Level level;
 
     /**
      * Ctor.
@@ -65,7 +86,7 @@ public class Logger {
      */
     public void log(Level level, String message) {
         if(level.getValue() >= this.level.getValue()) {
-            logManager.write(level, message, null);
+            logManager.write(level, message, (Object[])null);
         }
     }
 
@@ -81,6 +102,279 @@ public class Logger {
         }
     }
 
+    /**
+     * Write a log message that is supplied only if it passes the Level check.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param messageSupplier Supplies the message to be logged. Called on this thread, or on the
+     *                        AppenderThread if it is from Logger.defer().
+     */
+    public void log(Level level, Supplier<String> messageSupplier) {
+        if(level.getValue() >= this.level.getValue()) {
+            if(messageSupplier instanceof DeferredSupplier<String> deferred) {
+                logManager.write(level, deferred);
+            } else {
+                logManager.write(level, messageSupplier.get(), (Object[])null);
+            }
+        }
+    }
+
+    /**
+     * Write a log message with arguments that are supplied only if it passes the Level check.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param argSuppliers Supply the arguments. Each is called on this thread, or on the
+     *                     AppenderThread if it is from Logger.defer().
+     * @apiNote Java picks this over log(Level, String, Object...) for a bare null, as in log(level, "{}", null),
+     * so a null array is taken as no arguments, and a null Supplier as a null argument, as they were before.
+     */
+    public void log(Level level, String message, Supplier<?>... argSuppliers) {
+        if(level.getValue() >= this.level.getValue()) {
+            Object[] args = null;
+            if(argSuppliers != null) {
+                args = new Object[argSuppliers.length];
+                for(int index = 0; index < argSuppliers.length; index++) {
+                    Supplier<?> argSupplier = argSuppliers[index];
+                    args[index] = argSupplier == null || argSupplier instanceof DeferredSupplier
+                            ? argSupplier : argSupplier.get();
+                }
+            }
+            log(level, message, args);
+        }
+    }
+
+    /**
+     * Wrap a Supplier so that it is called on the AppenderThread, rather than the caller's thread.
+     * @param supplier Supplies a message or argument. It must be safe to call from another thread.
+     * @return The wrapped Supplier, to pass as a message or an argument. (of any log method)
+     * @apiNote static method
+     */
+    public static <T> DeferredSupplier<T> defer(Supplier<T> supplier) {
+        return new DeferredSupplier<>(supplier);
+    }
+
+    /**
+     * Write a log message with 1 primitive argument, without boxing it.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, long arg1) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setLongArgument(1, arg1);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 1 primitive argument, without boxing it.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, double arg1) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setDoubleArgument(1, arg1);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 1 primitive argument, without boxing it.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, boolean arg1) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setBooleanArgument(1, arg1);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 1 primitive argument, without boxing it.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing, and logged as a character, not a number.
+     */
+    public void logPrimitive(Level level, String message, char arg1) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setCharArgument(1, arg1);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 1 primitive argument, without boxing it.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing, and logged as a float. (0.1, not 0.10000000149011612)
+     */
+    public void logPrimitive(Level level, String message, float arg1) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setFloatArgument(1, arg1);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 2 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, long arg1, long arg2) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setLongArgument(1, arg1);
+            event.setLongArgument(2, arg2);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 2 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, long arg1, double arg2) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setLongArgument(1, arg1);
+            event.setDoubleArgument(2, arg2);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 2 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, double arg1, long arg2) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setDoubleArgument(1, arg1);
+            event.setLongArgument(2, arg2);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 2 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, double arg1, double arg2) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setDoubleArgument(1, arg1);
+            event.setDoubleArgument(2, arg2);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 3 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     * @param arg3 Argument 3, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, long arg1, long arg2, long arg3) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setLongArgument(1, arg1);
+            event.setLongArgument(2, arg2);
+            event.setLongArgument(3, arg3);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 3 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     * @param arg3 Argument 3, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, double arg1, double arg2, double arg3) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setDoubleArgument(1, arg1);
+            event.setDoubleArgument(2, arg2);
+            event.setDoubleArgument(3, arg3);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 4 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     * @param arg3 Argument 3, stored without boxing.
+     * @param arg4 Argument 4, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, long arg1, long arg2, long arg3, long arg4) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setLongArgument(1, arg1);
+            event.setLongArgument(2, arg2);
+            event.setLongArgument(3, arg3);
+            event.setLongArgument(4, arg4);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Write a log message with 4 primitive arguments, without boxing them.
+     * @param level Priority/severity level. (Some Loggers may discard this message based on this.)
+     * @param message The message to be logged, with replacement symbols that reference the arguments.
+     * @param arg1 Argument 1, stored without boxing.
+     * @param arg2 Argument 2, stored without boxing.
+     * @param arg3 Argument 3, stored without boxing.
+     * @param arg4 Argument 4, stored without boxing.
+     */
+    public void logPrimitive(Level level, String message, double arg1, double arg2, double arg3, double arg4) {
+        LogEvent event = claimEvent(level, message);
+        if(event != null) {
+            event.setDoubleArgument(1, arg1);
+            event.setDoubleArgument(2, arg2);
+            event.setDoubleArgument(3, arg3);
+            event.setDoubleArgument(4, arg4);
+            logManager.publishEvent(event);
+        }
+    }
+
+    /**
+     * Claim a LogEvent for one of the primitive overloads, if the level is not filtered out.
+     * @param level Priority/severity level.
+     * @param message The message to be logged.
+     * @return The event, for setting its arguments and then publishing, or null if it is not to be logged.
+     */
+    private LogEvent claimEvent(Level level, String message) {
+        if(level.getValue() >= this.level.getValue()) {
+            return logManager.claimEvent(level, message);
+        }
+        return null;
+    }
+
     /**
      * Get our package/class name.
      * @return The dot-delimited package and class as specified by the programmer.
@@ -127,4 +421,89 @@ public class Logger {
     public void ERROR(String message) { log(Level.Error, message); }
     public void ERROR(String message, Object... args) { log(Level.Error, message, args); }
 
+    //////////////////// Shortcut Methods for lazy (supplied) messages and arguments ////////////////////
+
+    public void TRACE(Supplier<String> messageSupplier) { log(Level.Trace, messageSupplier); }
+    public void TRACE(String message, Supplier<?>... argSuppliers) { log(Level.Trace, message, argSuppliers); }
+    public void DIAG(Supplier<String> messageSupplier) { log(Level.Diag, messageSupplier); }
+    public void DIAG(String message, Supplier<?>... argSuppliers) { log(Level.Diag, message, argSuppliers); }
+    public void INFO(Supplier<String> messageSupplier) { log(Level.Info, messageSupplier); }
+    public void INFO(String message, Supplier<?>... argSuppliers) { log(Level.Info, message, argSuppliers); }
+    public void WARN(Supplier<String> messageSupplier) { log(Level.Warn, messageSupplier); }
+    public void WARN(String message, Supplier<?>... argSuppliers) { log(Level.Warn, message, argSuppliers); }
+    public void ERROR(Supplier<String> messageSupplier) { log(Level.Error, messageSupplier); }
+    public void ERROR(String message, Supplier<?>... argSuppliers) { log(Level.Error, message, argSuppliers); }
+
+    //////////////////// Shortcut Methods for primitive (unboxed) arguments ////////////////////
+
+    public void TRACEp(String message, long arg1) { logPrimitive(Level.Trace, message, arg1); }
+    public void TRACEp(String message, double arg1) { logPrimitive(Level.Trace, message, arg1); }
+    public void TRACEp(String message, boolean arg1) { logPrimitive(Level.Trace, message, arg1); }
+    public void TRACEp(String message, char arg1) { logPrimitive(Level.Trace, message, arg1); }
+    public void TRACEp(String message, float arg1) { logPrimitive(Level.Trace, message, arg1); }
+    public void TRACEp(String message, long arg1, long arg2) { logPrimitive(Level.Trace, message, arg1, arg2); }
+    public void TRACEp(String message, long arg1, double arg2) { logPrimitive(Level.Trace, message, arg1, arg2); }
+    public void TRACEp(String message, double arg1, long arg2) { logPrimitive(Level.Trace, message, arg1, arg2); }
+    public void TRACEp(String message, double arg1, double arg2) { logPrimitive(Level.Trace, message, arg1, arg2); }
+    public void TRACEp(String message, long arg1, long arg2, long arg3) { logPrimitive(Level.Trace, message, arg1, arg2, arg3); }
+    public void TRACEp(String message, double arg1, double arg2, double arg3) { logPrimitive(Level.Trace, message, arg1, arg2, arg3); }
+    public void TRACEp(String message, long arg1, long arg2, long arg3, long arg4) { logPrimitive(Level.Trace, message, arg1, arg2, arg3, arg4); }
+    public void TRACEp(String message, double arg1, double arg2, double arg3, double arg4) { logPrimitive(Level.Trace, message, arg1, arg2, arg3, arg4); }
+
+    public void DIAGp(String message, long arg1) { logPrimitive(Level.Diag, message, arg1); }
+    public void DIAGp(String message, double arg1) { logPrimitive(Level.Diag, message, arg1); }
+    public void DIAGp(String message, boolean arg1) { logPrimitive(Level.Diag, message, arg1); }
+    public void DIAGp(String message, char arg1) { logPrimitive(Level.Diag, message, arg1); }
+    public void DIAGp(String message, float arg1) { logPrimitive(Level.Diag, message, arg1); }
+    public void DIAGp(String message, long arg1, long arg2) { logPrimitive(Level.Diag, message, arg1, arg2); }
+    public void DIAGp(String message, long arg1, double arg2) { logPrimitive(Level.Diag, message, arg1, arg2); }
+    public void DIAGp(String message, double arg1, long arg2) { logPrimitive(Level.Diag, message, arg1, arg2); }
+    public void DIAGp(String message, double arg1, double arg2) { logPrimitive(Level.Diag, message, arg1, arg2); }
+    public void DIAGp(String message, long arg1, long arg2, long arg3) { logPrimitive(Level.Diag, message, arg1, arg2, arg3); }
+    public void DIAGp(String message, double arg1, double arg2, double arg3) { logPrimitive(Level.Diag, message, arg1, arg2, arg3); }
+    public void DIAGp(String message, long arg1, long arg2, long arg3, long arg4) { logPrimitive(Level.Diag, message, arg1, arg2, arg3, arg4); }
+    public void DIAGp(String message, double arg1, double arg2, double arg3, double arg4) { logPrimitive(Level.Diag, message, arg1, arg2, arg3, arg4); }
+
+    public void INFOp(String message, long arg1) { logPrimitive(Level.Info, message, arg1); }
+    public void INFOp(String message, double arg1) { logPrimitive(Level.Info, message, arg1); }
+    public void INFOp(String message, boolean arg1) { logPrimitive(Level.Info, message, arg1); }
+    public void INFOp(String message, char arg1) { logPrimitive(Level.Info, message, arg1); }
+    public void INFOp(String message, float arg1) { logPrimitive(Level.Info, message, arg1); }
+    public void INFOp(String message, long arg1, long arg2) { logPrimitive(Level.Info, message, arg1, arg2); }
+    public void INFOp(String message, long arg1, double arg2) { logPrimitive(Level.Info, message, arg1, arg2); }
+    public void INFOp(String message, double arg1, long arg2) { logPrimitive(Level.Info, message, arg1, arg2); }
+    public void INFOp(String message, double arg1, double arg2) { logPrimitive(Level.Info, message, arg1, arg2); }
+    public void INFOp(String message, long arg1, long arg2, long arg3) { logPrimitive(Level.Info, message, arg1, arg2, arg3); }
+    public void INFOp(String message, double arg1, double arg2, double arg3) { logPrimitive(Level.Info, message, arg1, arg2, arg3); }
+    public void INFOp(String message, long arg1, long arg2, long arg3, long arg4) { logPrimitive(Level.Info, message, arg1, arg2, arg3, arg4); }
+    public void INFOp(String message, double arg1, double arg2, double arg3, double arg4) { logPrimitive(Level.Info, message, arg1, arg2, arg3, arg4); }
+
+    public void WARNp(String message, long arg1) { logPrimitive(Level.Warn, message, arg1); }
+    public void WARNp(String message, double arg1) { logPrimitive(Level.Warn, message, arg1); }
+    public void WARNp(String message, boolean arg1) { logPrimitive(Level.Warn, message, arg1); }
+    public void WARNp(String message, char arg1) { logPrimitive(Level.Warn, message, arg1); }
+    public void WARNp(String message, float arg1) { logPrimitive(Level.Warn, message, arg1); }
+    public void WARNp(String message, long arg1, long arg2) { logPrimitive(Level.Warn, message, arg1, arg2); }
+    public void WARNp(String message, long arg1, double arg2) { logPrimitive(Level.Warn, message, arg1, arg2); }
+    public void WARNp(String message, double arg1, long arg2) { logPrimitive(Level.Warn, message, arg1, arg2); }
+    public void WARNp(String message, double arg1, double arg2) { logPrimitive(Level.Warn, message, arg1, arg2); }
+    public void WARNp(String message, long arg1, long arg2, long arg3) { logPrimitive(Level.Warn, message, arg1, arg2, arg3); }
+    public void WARNp(String message, double arg1, double arg2, double arg3) { logPrimitive(Level.Warn, message, arg1, arg2, arg3); }
+    public void WARNp(String message, long arg1, long arg2, long arg3, long arg4) { logPrimitive(Level.Warn, message, arg1, arg2, arg3, arg4); }
+    public void WARNp(String message, double arg1, double arg2, double arg3, double arg4) { logPrimitive(Level.Warn, message, arg1, arg2, arg3, arg4); }
+
+    public void ERRORp(String message, long arg1) { logPrimitive(Level.Error, message, arg1); }
+    public void ERRORp(String message, double arg1) { logPrimitive(Level.Error, message, arg1); }
+    public void ERRORp(String message, boolean arg1) { logPrimitive(Level.Error, message, arg1); }
+    public void ERRORp(String message, char arg1) { logPrimitive(Level.Error, message, arg1); }
+    public void ERRORp(String message, float arg1) { logPrimitive(Level.Error, message, arg1); }
+    public void ERRORp(String message, long arg1, long arg2) { logPrimitive(Level.Error, message, arg1, arg2); }
+    public void ERRORp(String message, long arg1, double arg2) { logPrimitive(Level.Error, message, arg1, arg2); }
+    public void ERRORp(String message, double arg1, long arg2) { logPrimitive(Level.Error, message, arg1, arg2); }
+    public void ERRORp(String message, double arg1, double arg2) { logPrimitive(Level.Error, message, arg1, arg2); }
+    public void ERRORp(String message, long arg1, long arg2, long arg3) { logPrimitive(Level.Error, message, arg1, arg2, arg3); }
+    public void ERRORp(String message, double arg1, double arg2, double arg3) { logPrimitive(Level.Error, message, arg1, arg2, arg3); }
+    public void ERRORp(String message, long arg1, long arg2, long arg3, long arg4) { logPrimitive(Level.Error, message, arg1, arg2, arg3, arg4); }
+    public void ERRORp(String message, double arg1, double arg2, double arg3, double arg4) { logPrimitive(Level.Error, message, arg1, arg2, arg3, arg4); }
+
 }
@@ -0,0 +1,45 @@
+package com.ablestrategies.logger;
+
+import java.time.Instant;
+
+/**
+ * ManualClock - A clock that only changes when it is told to, for deterministic tests.
+ */
+public class ManualClock implements IClock {
+
+    /** The current time. */
+    private volatile long now;
+
+    /**
+     * Ctor.
+     * @param start The initial time.
+     */
+    public ManualClock(Instant start) {
+        setTime(start);
+    }
+
+    /**
+     * Get the time as last set.
+     * @return Nanoseconds since 1970-01-01T00:00:00Z.
+     */
+    public long epochNanos() {
+        return now;
+    }
+
+    /**
+     * Set the time.
+     * @param time The new time.
+     */
+    public synchronized void setTime(Instant time) {
+        now = time.getEpochSecond() * 1_000_000_000L + time.getNano();
+    }
+
+    /**
+     * Move the time forward (or backward, if negative).
+     * @param nanos Nanoseconds to add.
+     */
+    public synchronized void advanceNanos(long nanos) {
+        now += nanos;
+    }
+
+}
@@ -0,0 +1,292 @@
+package com.ablestrategies.logger;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * MappedSegmentAppender - Log writer that outputs events in textual form to memory-mapped logfile segments.
+ * <p/><br/>
+ * For high volumes: each segment is preallocated at its full size and mapped into memory, so writing an event
+ * is just a copy into the page cache, with no system call. The OS writes the pages back in its own time, so a
+ * burst is absorbed by the page cache, and the events survive if the JVM dies (but not if the OS does.)
+ * <p/>
+ * When an event does not fit in the rest of the segment, the segment is trimmed to what was written, and the
+ * next one is started, rolled over like LogFileAppender's files. The last segment is trimmed by close(), so
+ * if the JVM dies first, it is left at its full size, padded with NULs. A segment is unmapped before it is
+ * trimmed, as Windows will not truncate a file that is still mapped.
+ * <p/>
+ * If a segment cannot be mapped (i.e. the disk is full) then events are dropped, and mapping it is retried
+ * every RETRY_MILLIS, until it succeeds.
+ * <p/><br/>
+ * Configuration Settings, the same as LogFileAppender's, so only configure one of the two...<ul>
+ *  <li> jlogger.logfile.prefix   "@t @c [@L]: "  See TextFormatter.java </li>
+ *  <li> jlogger.logfile.name     "jlog.log"      </li>
+ *  <li> jlogger.logfile.kfilesize "100"          Size of each segment </li>
+ *  <li> jlogger.logfile.backups  "10"            </li>
+ *  <li> jlogger.logfile.flush    "PerBatch"      See FlushPolicy.java, only the forcing policies matter </li>
+ * </ul>
+ **/
+public class MappedSegmentAppender implements IAppender {
+
+    /** Largest eventBuffer that is kept for re-use. */
+    private static final int MAX_RETAINED_EVENT_CHARS = 64 * 1024;
+
+    /** Milliseconds between attempts to map a segment, after one could not be mapped. */
+    public static long RETRY_MILLIS = 1_000;
+
+    /** Unsafe.invokeCleaner(ByteBuffer), bound, to unmap a segment right away, or null if not available. */
+    private static final MethodHandle unmapper = findUnmapper();
+
+    /** We need this to format LogEvents into textual messages. */
+    private final TextFormatter textFormatter;
+
+    /** The segment files. */
+    private final LogFileSet fileSet;
+
+    /** Size of each segment, in bytes. */
+    private final long segmentSize;
+
+    /** The current segment, or null if it could not be opened. */
+    private FileChannel channel;
+
+    /** The current segment, mapped, where position is the end of what's written. */
+    private MappedByteBuffer segment;
+
+    /** End of what's been forced out to the device, in the current segment. */
+    private int forcedPosition = 0;
+
+    /** The segment that could not be mapped, to be retried, or null if there is none. */
+    private String failedFilename = null;
+
+    /** When to retry mapping failedFilename, in epoch millis. */
+    private long retryMillis = 0;
+
+    /** Events dropped since a segment could not be mapped. */
+    private long droppedEvents = 0;
+
+    /** Decides when to force, per the FlushPolicy. (there's never anything to write) */
+    private final FileFlusher flusher;
+
+    /** The event that is being formatted. */
+    private final StringBuilder eventBuffer = new StringBuilder(1024);
+
+    /** Encodes eventBuffer to UTF-8, re-using its bytes. */
+    private final Utf8Encoder encoder = new Utf8Encoder(1024);
+
+    /**
+     * Ctor. (required)
+     * @param configuration Source of settings.
+     */
+    @SuppressWarnings("unused")
+    public MappedSegmentAppender(IConfiguration configuration) {
+        String prefix = configuration.getString("jlogger.logfile.prefix", "@t @c [@L]: ");
+        fileSet = new LogFileSet(configuration);
+        segmentSize = Math.min(Math.max(configuration.getLong("jlogger.logfile.kfilesize", 100), 1) * 1024, Integer.MAX_VALUE);
+        textFormatter = new TextFormatter(prefix);
+        flusher = new FileFlusher(configuration, this, () -> {}, this::force);
+        openSegment(fileSet.rollover(), 0);
+    }
+
+    /**
+     * Output a LogEvent to the log.
+     * @param logEvent To be formatted and written.
+     */
+    public synchronized void append(LogEvent logEvent) {
+        eventBuffer.setLength(0);
+        textFormatter.formatTo(logEvent, eventBuffer);
+        eventBuffer.append(System.lineSeparator());
+        ByteBuffer bytes = encoder.encode(eventBuffer);
+        if(eventBuffer.capacity() > MAX_RETAINED_EVENT_CHARS) {
+            eventBuffer.setLength(0);
+            eventBuffer.trimToSize(); // don't hang on to the chars of one huge event
+        }
+        if(segment == null && !retryOpenSegment(bytes.remaining())) {
+            droppedEvents++; // could not be mapped, already reported
+            return;
+        }
+        if(bytes.remaining() > segment.remaining()) {
+            closeSegment();
+            openSegment(fileSet.rollover(), bytes.remaining());
+            if(segment == null) {
+                droppedEvents++;
+                return;
+            }
+        }
+        int byteCount = bytes.remaining();
+        segment.put(bytes);
+        flusher.appended(byteCount, logEvent.level == Level.Error);
+    }
+
+    /**
+     * Force what's been written since the last force out to the device.
+     */
+    private void force() {
+        if(segment != null && segment.position() > forcedPosition) {
+            segment.force(forcedPosition, segment.position() - forcedPosition);
+            forcedPosition = segment.position();
+        }
+    }
+
+    /**
+     * Format a LogEvent ahead of append(), caching the result in it.
+     * @param logEvent To be formatted.
+     * @implNote Called by a FormattingStage worker, if any.
+     */
+    public void prepare(LogEvent logEvent) {
+        textFormatter.format(logEvent);
+    }
+
+    /**
+     * Start a segment, preallocating and mapping it, and write its header.
+     * @param filename The segment file, usually from fileSet.rollover().
+     * @param eventSize Size of the event to be written, in bytes, in case it is bigger than a segment.
+     */
+    private void openSegment(String filename, int eventSize) {
+        // not via the encoder, as its bytes hold the event that caused this rollover
+        ByteBuffer header = ByteBuffer.wrap(("###LogFile### " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        long size = Math.max(segmentSize, (long)header.remaining() + eventSize);
+        try {
+            channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            forcedPosition = 0;
+            segment.put(header);
+            System.out.println("MappedSegmentAppender writing to: " + filename);
+        } catch (IOException | IllegalArgumentException e) {
+            if(failedFilename == null) { // only the first time, not each retry
+                Support.handleLoggerError(true, "MappedSegmentAppender cannot map " + filename +
+                        ", will retry every " + RETRY_MILLIS + "ms", e);
+            }
+            closeSegment();
+            failedFilename = filename;
+            retryMillis = System.currentTimeMillis() + RETRY_MILLIS;
+            return;
+        }
+        failedFilename = null;
+        reportDroppedEvents();
+    }
+
+    /**
+     * Retry mapping the segment that could not be mapped, if it is time to.
+     * @param eventSize Size of the event to be written, in bytes, in case it is bigger than a segment.
+     * @return true if there is a segment now.
+     */
+    private boolean retryOpenSegment(int eventSize) {
+        if(failedFilename == null || System.currentTimeMillis() < retryMillis) {
+            return false;
+        }
+        openSegment(failedFilename, eventSize);
+        return segment != null;
+    }
+
+    /**
+     * Report the events that were dropped while there was no segment, if any.
+     */
+    private void reportDroppedEvents() {
+        if(droppedEvents > 0) {
+            Support.handleLoggerError(false, "MappedSegmentAppender dropped " + droppedEvents +
+                    " events while it could not map a segment", null);
+            droppedEvents = 0;
+        }
+    }
+
+    /**
+     * Trim the current segment to what was written, and close it.
+     */
+    private void closeSegment() {
+        if(channel == null) {
+            return;
+        }
+        flusher.closing();
+        try {
+            if(segment != null) {
+                int written = segment.position();
+                unmap(segment);
+                segment = null; // must not be touched once unmapped
+                channel.truncate(written);
+            }
+            if(flusher.getPolicy().forces()) {
+                channel.force(true); // the new size
+            }
+            channel.close();
+        } catch (IOException e) {
+            Support.handleLoggerError(false, "MappedSegmentAppender: Trouble closing segment", e);
+        }
+        channel = null;
+        segment = null;
+    }
+
+    /**
+     * Unmap a segment now, rather than when it is garbage collected, so that its file can be truncated.
+     * @param mapped The segment, which must not be used after this.
+     * @apiNote static method
+     * @implNote Without Unsafe.invokeCleaner() the mapping goes when the buffer is garbage collected, which is
+     * fine for truncate() everywhere but on Windows, where that fails (and is reported) leaving the NUL padding.
+     */
+    private static void unmap(MappedByteBuffer mapped) {
+        if(unmapper != null) {
+            try {
+                unmapper.invokeExact((ByteBuffer)mapped);
+            } catch (Throwable e) {
+                Support.handleLoggerError(false, "MappedSegmentAppender: Cannot unmap segment", e);
+            }
+        }
+    }
+
+    /**
+     * Look up Unsafe.invokeCleaner(ByteBuffer), the only way to unmap a MappedByteBuffer before it is collected.
+     * @return The method, bound to the Unsafe instance, or null if it is not available.
+     * @apiNote static method
+     */
+    private static MethodHandle findUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Does our prefix output the calling class or method?
+     * @return true if LogEvents must capture their caller.
+     */
+    public boolean isCallerInfoNeeded() {
+        return textFormatter.isCallerInfoNeeded();
+    }
+
+    /**
+     * Notification that the app is shutting down, giving time to flush before close() is called.
+     */
+    public void notifyShutdown() {
+        // nothing is buffered, the page cache has it all
+    }
+
+    /**
+     * This will be called after the last log message has been written.
+     */
+    public synchronized void close() {
+        closeSegment();
+        reportDroppedEvents();
+        flusher.close();
+        fileSet.close();
+        textFormatter.close();
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.ablestrategies.logger;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InaccessibleObjectException;
@@ -8,12 +11,66 @@ import java.util.*;
 
 /**
  * This is for assembling a String that is a man-readable version of and Object, Array, etc.
+ * <p/>
+ * The dump is appended straight to the caller's buffer, and stops (with TRUNCATION_MARKER) once it
+ * reaches its budget of characters, rather than traversing the rest of a large object graph.
+ * @implNote The fields of each class are looked up by reflection only once. (see FIELD_ACCESSORS)
  */
 public class ObjectDumper {
 
+    /** Default most characters that one dump may append. (see "jlogger.dump.maxchars") */
+    public static int MAX_DUMP_CHARS = 32 * 1024;
+
+    /** Appended when a dump runs out of budget. */
+    static final String TRUNCATION_MARKER = "...(truncated)";
+
+    /** Indentation by depth, two spaces per level. */
+    private static final String[] INDENTS = {"", "  ", "    ", "      ", "        ", "          ", "            "};
+
+    /** For the identity hash of each object. */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * A field to be dumped, as found by reflection once per class.
+     * @param name Field name, with " (static)" and/or " (public)" as applicable, or "Unknown".
+     * @param getter Returns the field's value, given the object (Object)Object, or null if not accessible.
+     */
+    private record FieldAccessor(String name, MethodHandle getter) {}
+
+    /** Fields to dump per class, when not showEverything. */
+    private static final ClassValue<FieldAccessor[]> FIELD_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> clazz) {
+            return createFieldAccessors(clazz, false);
+        }
+    };
+
+    /** Fields to dump per class, when showEverything. */
+    private static final ClassValue<FieldAccessor[]> ALL_FIELD_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> clazz) {
+            return createFieldAccessors(clazz, true);
+        }
+    };
+
+    /** The type that every FieldAccessor getter is adapted to. */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
     /** Output is assembled here. */
     private StringBuilder buffer;
 
+    /** Where this dump started in the buffer. */
+    private int dumpStart;
+
+    /** The buffer length at which the budget runs out. */
+    private int dumpLimit;
+
+    /** True once the budget has run out, so traversal stops. */
+    private boolean truncated;
+
+    /** Most characters that one dump may append. */
+    private final int maxChars;
+
     /** How deep to recurse. */
     private final int maxDepthRecursion;
 
@@ -23,8 +80,14 @@ public class ObjectDumper {
     /** true to dump statics, inaccessibles, etc. */
     private final boolean showEverything;
 
-    /** Keep track of previously-dumped objects, so we don't have infinite recursion. */
-    private HashSet<Object> visited;
+    /** Keep track of previously-dumped objects (by identity), so we don't have infinite recursion. */
+    private Set<Object> visited;
+
+    /** Largest visited set that is kept for re-use after a dump, rather than discarded. */
+    private static final int MAX_RETAINED_VISITED = 4096;
+
+    /** Visited sets, re-used by successive dumps on each thread. (i.e. the AppenderThread) */
+    private static final ThreadLocal<Set<Object>> VISITED_SETS = ThreadLocal.withInitial(ObjectDumper::newVisitedSet);
 
     /**
      * Ctor.
@@ -33,9 +96,21 @@ public class ObjectDumper {
      * @param showEverything true to dump statics, inaccessibles, etc.
      */
     public ObjectDumper(int maxDepthRecursion, int maxElementsPerArray, boolean showEverything) {
+        this(maxDepthRecursion, maxElementsPerArray, showEverything, MAX_DUMP_CHARS);
+    }
+
+    /**
+     * Ctor.
+     * @param maxDepthRecursion How deep to recurse.
+     * @param maxElementsPerArray Max array/collection/map elements to dump.
+     * @param showEverything true to dump statics, inaccessibles, etc.
+     * @param maxChars Most characters that one dump may append, not counting TRUNCATION_MARKER.
+     */
+    public ObjectDumper(int maxDepthRecursion, int maxElementsPerArray, boolean showEverything, int maxChars) {
         this.maxDepthRecursion = Math.min(maxDepthRecursion, 5);
         this.maxElementsPerArray = Math.min(maxElementsPerArray, 100);
         this.showEverything = showEverything;
+        this.maxChars = Math.max(0, maxChars);
     }
 
     /**
@@ -45,10 +120,47 @@ public class ObjectDumper {
      * @return String representation of object.
      */
     public String dump(Object object, String name) {
-        buffer = new StringBuilder();
-        visited = new HashSet<>();
-        dumpRecursively(object, name, 0);
-        return buffer.toString();
+        StringBuilder output = new StringBuilder();
+        dump(object, name, output);
+        return output.toString();
+    }
+
+    /**
+     * Dump an object, array, or whatever, appending to a buffer.
+     * @param object To be dumped.
+     * @param name It's variable or field name. (as that cannot be gleaned from the value.)
+     * @param output The buffer to append the String representation of object to.
+     */
+    public void dump(Object object, String name, StringBuilder output) {
+        buffer = output;
+        dumpStart = output.length();
+        dumpLimit = (int)Math.min(Integer.MAX_VALUE, (long)dumpStart + maxChars);
+        truncated = false;
+        Set<Object> visitedSet = VISITED_SETS.get();
+        boolean reused = visitedSet.isEmpty(); // else a dump is in progress on this thread, i.e. via toString()
+        visited = reused ? visitedSet : newVisitedSet();
+        try {
+            dumpRecursively(object, name, 0);
+        } finally {
+            if(reused) {
+                if(visited.size() > MAX_RETAINED_VISITED) {
+                    VISITED_SETS.set(newVisitedSet());
+                } else {
+                    visited.clear();
+                }
+            }
+            buffer = null;
+            visited = null;
+        }
+    }
+
+    /**
+     * Create an empty set that compares objects by identity, not by equals() and hashCode().
+     * @return The new set.
+     * @apiNote static method
+     */
+    private static Set<Object> newVisitedSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
     /**
@@ -58,7 +170,7 @@ public class ObjectDumper {
      * @param currentDepth recursion depth, add one each time you recurse.
      */
     protected void dumpRecursively(Object object, String name, int currentDepth) {
-        if(currentDepth > maxDepthRecursion) {
+        if(currentDepth > maxDepthRecursion || truncated) {
             return;
         }
         if(name == null) {
@@ -68,12 +180,27 @@ public class ObjectDumper {
             append(name + " (null)", currentDepth, true);
             return;
         }
-        String id = String.format("@%08x", System.identityHashCode(object));
-        String title = object.getClass().getSimpleName() + " " + name + "; (" + id + ")";
+        String id = identityHex(System.identityHashCode(object));
+        String title = object.getClass().getSimpleName() + " " + name + "; (@" + id + ")";
         append(title, currentDepth, true);
         dumpObjectTypes(object, currentDepth);
     }
 
+    /**
+     * Format an identity hash as 8 hex digits. (as String.format("%08x") would)
+     * @param hash The identity hash.
+     * @return The hex digits.
+     * @apiNote static method
+     */
+    private static String identityHex(int hash) {
+        char[] digits = new char[8];
+        for(int index = 7; index >= 0; index--) {
+            digits[index] = HEX_DIGITS[hash & 0xf];
+            hash >>>= 4;
+        }
+        return new String(digits);
+    }
+
     /**
      * Determine an object's type (array, list, etc.) and then dump it.
      * @param object To be dumped.
@@ -119,7 +246,7 @@ public class ObjectDumper {
         append("java.lang.Array [", currentDepth, true);
         int arrayLgt = Array.getLength(array);
         int formatLgt = Math.min(arrayLgt, maxElementsPerArray);
-        for (int i = 0; i < formatLgt; i++) {
+        for (int i = 0; i < formatLgt && !truncated; i++) {
             dumpRecursively(Array.get(array, i), "[" + i + "]", currentDepth + 1);
         }
         if(arrayLgt > maxElementsPerArray) {
@@ -142,7 +269,7 @@ public class ObjectDumper {
         int index = 0;
         for (Map.Entry<?, ?> entry : map.entrySet()) {
             dumpRecursively(entry.getValue(), "[" + entry.getKey() + "|",  currentDepth + 1);
-            if(++index >= collectionLength || index >= maxElementsPerArray) {
+            if(++index >= collectionLength || index >= maxElementsPerArray || truncated) {
                 break;
             }
         }
@@ -166,7 +293,7 @@ public class ObjectDumper {
         int index = 0;
         for (Object obj : collection) {
             dumpRecursively(obj, "[" + index + "|",  currentDepth + 1);
-            if(++index >= collectionLength || index >= maxElementsPerArray) {
+            if(++index >= collectionLength || index >= maxElementsPerArray || truncated) {
                 break;
             }
         }
@@ -214,49 +341,80 @@ public class ObjectDumper {
             return;
         }
         Class<?> clazz = object.getClass();
-        Field[] fields = getFields(clazz);
-        for(Field field : fields) {
-            dumpField(object, field, currentDepth);
+        FieldAccessor[] fieldAccessors = showEverything ? ALL_FIELD_ACCESSORS.get(clazz) : FIELD_ACCESSORS.get(clazz);
+        for(int index = 0; index < fieldAccessors.length && !truncated; index++) {
+            dumpField(object, fieldAccessors[index], currentDepth);
         }
     }
 
     /**
      * Dump one field of an object.
      * @param object The object containing the field.
-     * @param field The Field to be dumped.
+     * @param fieldAccessor The field to be dumped.
      * @param currentDepth Current recursion depth.
      */
-    private void dumpField(Object object, Field field, int currentDepth) {
-        boolean isSynthetic = field.isSynthetic();
-        boolean isEnumConstant = field.isEnumConstant();
-        boolean isStatic = (field.getModifiers() & Modifier.STATIC) != 0;
-        boolean isPublic = (field.getModifiers() & Modifier.PUBLIC) != 0;
-        String name = "Unknown";
-        if(!(isSynthetic || isEnumConstant || (isStatic && !showEverything))) {
+    private void dumpField(Object object, FieldAccessor fieldAccessor, int currentDepth) {
+        Object value;
+        try {
+            if(fieldAccessor.getter == null) {
+                throw new IllegalAccessException(fieldAccessor.name);
+            }
+            value = (Object)fieldAccessor.getter.invokeExact(object);
+        } catch (Throwable e) {
+            if(showEverything) {
+                append(fieldAccessor.name + " (not accessible)", currentDepth + 1, true);
+            }
+            return;
+        }
+        dumpRecursively(value, fieldAccessor.name, currentDepth + 1);
+    }
+
+    /**
+     * Find the fields to be dumped for a class, with a getter for each. (see FIELD_ACCESSORS)
+     * @param clazz The object's class.
+     * @param showEverything true to include statics, inherited public fields, and inaccessibles.
+     * @return The fields to be dumped, in the order they are to be dumped.
+     * @apiNote static method
+     */
+    private static FieldAccessor[] createFieldAccessors(Class<?> clazz, boolean showEverything) {
+        List<FieldAccessor> fieldAccessors = new ArrayList<>();
+        for(Field field : getFields(clazz, showEverything)) {
+            boolean isStatic = (field.getModifiers() & Modifier.STATIC) != 0;
+            boolean isPublic = (field.getModifiers() & Modifier.PUBLIC) != 0;
+            if(field.isSynthetic() || field.isEnumConstant() || (isStatic && !showEverything)) {
+                continue;
+            }
             try {
                 field.setAccessible(true);
-                name = field.getName();
+                String name = field.getName();
                 if(isStatic) {
                     name = name + " (static)";
                 }
                 if(isPublic) {
                     name = name + " (public)";
                 }
-                dumpRecursively(field.get(object), name, currentDepth + 1);
-            } catch (InaccessibleObjectException | IllegalAccessException e) {
+                MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+                if(isStatic) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                }
+                fieldAccessors.add(new FieldAccessor(name, getter.asType(GETTER_TYPE)));
+            } catch (InaccessibleObjectException | IllegalAccessException | SecurityException e) {
                 if(showEverything) {
-                    append(name + " (not accessible)", currentDepth + 1, true);
+                    fieldAccessors.add(new FieldAccessor("Unknown", null));
                 }
             }
         }
+        return fieldAccessors.toArray(new FieldAccessor[0]);
     }
 
     /**
      * Get an array of Fields that appear in an Object.
      * @param clazz The object's class.
+     * @param showEverything true to include inherited public fields.
      * @return The fields to be dumped.
+     * @apiNote static method
      */
-    private Field[] getFields(Class<?> clazz) {
+    private static Field[] getFields(Class<?> clazz, boolean showEverything) {
         Field[] declaredFields = clazz.getDeclaredFields();
         Set<Field> allFields = new HashSet<>(Arrays.stream(declaredFields).toList());
         if(showEverything) {
@@ -282,25 +440,39 @@ public class ObjectDumper {
     }
 
     /**
-     * Dump to the buffer or, if recursion is too deep, discard.
+     * Dump to the buffer or, if recursion is too deep, discard. If this would exceed the budget,
+     * append as much as fits, then the TRUNCATION_MARKER, and stop the dump.
      * @param string To be dumped.
      * @param currentDepth recursion depth.
      * @param onNewLine true to prepend a newline and to indent the string.
      */
     protected void append(String string, int currentDepth, boolean onNewLine) {
-        if(currentDepth > maxDepthRecursion) {
+        if(currentDepth > maxDepthRecursion || truncated) {
             return;
         }
-        if(onNewLine && !buffer.isEmpty()) {
-            buffer.append(System.lineSeparator());
-            String indentFmt = "%s";
-            if (currentDepth > 0) {
-                indentFmt = "%" + (currentDepth * 2) + "s";
-            }
-            String indent = String.format(indentFmt, "");
-            buffer.append(indent);
+        if(onNewLine && buffer.length() > dumpStart) {
+            appendWithinBudget(System.lineSeparator());
+            appendWithinBudget(currentDepth < INDENTS.length ? INDENTS[currentDepth] : " ".repeat(currentDepth * 2));
+        }
+        appendWithinBudget(string);
+    }
+
+    /**
+     * Append to the buffer, unless the budget has run out.
+     * @param string To be appended.
+     */
+    private void appendWithinBudget(String string) {
+        if(truncated) {
+            return;
+        }
+        int room = dumpLimit - buffer.length();
+        if(string.length() <= room) {
+            buffer.append(string);
+            return;
         }
-        buffer.append(string);
+        buffer.append(string, 0, Math.max(0, room));
+        buffer.append(TRUNCATION_MARKER);
+        truncated = true;
     }
 
 }
@@ -0,0 +1,41 @@
+package com.ablestrategies.logger;
+
+/**
+ * OverflowPolicy - What to do with a new LogEvent when the (bounded) event queue is full.
+ * <p/>
+ * Configured via "jlogger.queue.overflow". Dropped events are counted per Level and reported
+ * periodically, as a Warn event, through the appenders.
+ */
+public enum OverflowPolicy {
+
+    /** Make the logging thread wait until there is room. (nothing is lost) */
+    Block,
+
+    /** Discard the new event. */
+    DropNewest,
+
+    /** Discard the oldest queued event to make room for the new one. */
+    DropOldest,
+
+    /** Discard the new event if it is below "jlogger.queue.droplevel", otherwise wait for room. */
+    DropBelowLevel,
+
+    /** Skip the queue and append the new event on the logging thread. (nothing is lost) */
+    CallerRuns;
+
+    /**
+     * Look up an OverflowPolicy based on its name.
+     * @param name Block, DropNewest, etc. (not case-sensitive)
+     * @return corresponding OverflowPolicy. Block if not found.
+     * @apiNote static method
+     */
+    public static OverflowPolicy fromName(String name) {
+        for(OverflowPolicy policy : OverflowPolicy.values()) {
+            if(policy.name().equalsIgnoreCase(name.trim())) {
+                return policy;
+            }
+        }
+        return OverflowPolicy.Block;
+    }
+
+}
@@ -0,0 +1,302 @@
+package com.ablestrategies.logger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * QueuedAppender - Runs another appender behind its own queue and thread, so that it cannot stall the others.
+ * <p/>
+ * To use it, add a suffix to the appender's name in jlogger.appenders.list...
+ * <ul>
+ *  <li> "x.y.ZzzAppender"         Called by the AppenderThread, as usual. </li>
+ *  <li> "x.y.ZzzAppender:thread"  Called by its own (platform) thread. </li>
+ *  <li> "x.y.ZzzAppender:virtual" Called by its own virtual thread. </li>
+ * </ul>
+ * The AppenderThread copies each event into this appender's EventRingBuffer, which follows the same
+ * jlogger.queue.xxx settings as the main queue (capacity, droplevel, wait, batchsize) except for overflow.
+ * That is jlogger.queue.appender.overflow, "DropNewest" by default, because if this queue were to block
+ * when full, a stalled appender would stall the AppenderThread and so all the other appenders too.
+ * Dropped events are counted, and reported to the appender once it catches up.
+ * The copies share their formatters cache with the original event, so if two appenders use the same
+ * prefix, whichever thread formats an event first saves the other one the trouble.
+ * <p/>
+ * Get one with LogManager.getAppender() to check its backlog, dropped, and appended counts.
+ */
+public class QueuedAppender implements IAppender, Runnable {
+
+    /** The appender that does the actual work, on our thread. */
+    private final IAppender appender;
+
+    /** Simple class name of the appender, for the thread name and messages. */
+    private final String appenderName;
+
+    /** Events waiting for the appender. */
+    private final EventRingBuffer ringBuffer;
+
+    /** Events taken from the ring buffer, plus already-appended spares. (see AppenderThread.batch) */
+    private final LogEvent[] batch;
+
+    /** List view of batch. */
+    private final List<LogEvent> batchList;
+
+    /** How to wait when the ring buffer is empty. */
+    private final WaitStrategy waitStrategy;
+
+    /** What to do when the ring buffer is full. */
+    private final OverflowPolicy overflowPolicy;
+
+    /** Our consumer thread. */
+    private final Thread thread;
+
+    /** Events passed to the appender so far. */
+    private final AtomicLong appendedTotal = new AtomicLong();
+
+    /** Highest backlog seen so far. */
+    private final AtomicLong maxBacklog = new AtomicLong();
+
+    /** Total dropped event count as of the last drop report. */
+    private long reportedDropTotal = 0;
+
+    /** When the last drop report was written. */
+    private long lastDropReportMillis = 0;
+
+    /** How long close() waits for our thread to drain the queue and close the appender. */
+    public static long CLOSE_WAIT_MILLIS = 1_000;
+
+    /** Set by close(), so that the consumer thread exits. */
+    private volatile boolean exitThread = false;
+
+    /**
+     * Ctor.
+     * @param configuration Source of settings.
+     * @param appender The appender to be run on its own thread.
+     * @param virtualThread true for a virtual thread, false for a platform thread.
+     */
+    QueuedAppender(IConfiguration configuration, IAppender appender, boolean virtualThread) {
+        this.appender = appender;
+        this.appenderName = appender.getClass().getSimpleName();
+        int capacity = (int)configuration.getLong("jlogger.queue.capacity", AppenderThread.QUEUE_CAPACITY);
+        overflowPolicy = OverflowPolicy.fromName(configuration.getString("jlogger.queue.appender.overflow", "DropNewest"));
+        Level dropBelowLevel = Level.fromName(configuration.getString("jlogger.queue.droplevel", "Info"));
+        ringBuffer = new EventRingBuffer(capacity, overflowPolicy, dropBelowLevel);
+        waitStrategy = WaitStrategy.fromName(configuration.getString("jlogger.queue.wait", "Blocking"));
+        batch = new LogEvent[(int)Math.max(1, configuration.getLong("jlogger.queue.batchsize", AppenderThread.BATCH_SIZE))];
+        for(int index = 0; index < batch.length; index++) {
+            batch[index] = new LogEvent();
+        }
+        batchList = Arrays.asList(batch);
+        String threadName = "JLogger-" + appenderName;
+        thread = virtualThread ? Thread.ofVirtual().name(threadName).unstarted(this) : new Thread(this, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Main background loop of our consumer thread.
+     */
+    @Override
+    public void run() {
+        int idleCount = 0;
+        while(!exitThread) {
+            if(takeAndAppend() > 0) {
+                idleCount = 0;
+            } else {
+                reportDroppedEvents();
+                long reportDelayNanos = nanosUntilDropReport();
+                if(reportDelayNanos > 0 && waitStrategy == WaitStrategy.Blocking) {
+                    ringBuffer.awaitPublished(reportDelayNanos); // there may be no more events to wake us for it
+                } else {
+                    waitStrategy.idle(ringBuffer, idleCount++);
+                }
+            }
+        }
+        drainAndClose();
+    }
+
+    /**
+     * Append whatever is left in the queue, then any pending dropped events report, then close the appender.
+     * @implNote Called only by our thread, once told to exit, so the ring buffer still has one consumer.
+     */
+    private void drainAndClose() {
+        int eventsAppended = 1;
+        while(eventsAppended > 0) {
+            eventsAppended = takeAndAppend();
+        }
+        lastDropReportMillis = 0;
+        reportDroppedEvents();
+        synchronized (appender) {
+            appender.close();
+        }
+    }
+
+    /**
+     * Take a batch of events from the ring buffer, if there are any, and pass them to the appender.
+     * @return number of events appended, zero if there were none.
+     * @implNote Called only by our thread.
+     */
+    private int takeAndAppend() {
+        int count = ringBuffer.takeBatch(batch, batch.length);
+        if(count > 0) {
+            synchronized (appender) { // AppenderThread may be appending too, per OverflowPolicy.CallerRuns
+                appender.appendBatch(batchList.subList(0, count));
+            }
+            appendedTotal.addAndGet(count);
+        }
+        for(int index = 0; index < count; index++) {
+            batch[index].release(); // it is now a spare, for the next takeBatch()
+        }
+        return count;
+    }
+
+    /**
+     * Write a Warn event to the appender, saying how many events have been dropped since the last such report.
+     * (at most once per AppenderThread.DROP_REPORT_MILLIS)
+     * @implNote Called only by our thread.
+     */
+    private void reportDroppedEvents() {
+        long droppedTotal = ringBuffer.getDroppedTotal();
+        long now = System.currentTimeMillis();
+        if(droppedTotal == reportedDropTotal || now - lastDropReportMillis < AppenderThread.DROP_REPORT_MILLIS) {
+            return;
+        }
+        String report = "JLogger " + appenderName + " queue full (" + overflowPolicy.name() + "), dropped "
+                + (droppedTotal - reportedDropTotal) + " events";
+        reportedDropTotal = droppedTotal;
+        lastDropReportMillis = now;
+        synchronized (appender) {
+            appender.append(new LogEvent(false, Level.Warn, report, null));
+        }
+    }
+
+    /**
+     * How long until the pending dropped events report is due?
+     * @return Nanoseconds until it is due, or zero if there is nothing to report.
+     * @implNote Called only by our thread.
+     */
+    private long nanosUntilDropReport() {
+        if(ringBuffer.getDroppedTotal() == reportedDropTotal) {
+            return 0;
+        }
+        long millis = lastDropReportMillis + AppenderThread.DROP_REPORT_MILLIS - System.currentTimeMillis();
+        return Math.max(1, millis) * 1_000_000L;
+    }
+
+    //////////////////// The following methods run on the AppenderThread /////////////////////
+
+    /**
+     * Queue (a copy of) a LogEvent for our thread.
+     * @param logEvent To be formatted and written.
+     */
+    public void append(LogEvent logEvent) {
+        LogEvent slot = ringBuffer.claim(logEvent.level);
+        if(slot == null) {
+            return; // dropped, per OverflowPolicy
+        }
+        slot.copySharingCacheFrom(logEvent);
+        if(!ringBuffer.publish(slot)) {
+            synchronized (appender) { // the queue is full, so append it here, per OverflowPolicy.CallerRuns
+                appender.append(slot);
+            }
+            appendedTotal.incrementAndGet();
+        }
+        int backlog = ringBuffer.size();
+        if(backlog > maxBacklog.get()) {
+            maxBacklog.accumulateAndGet(backlog, Math::max);
+        }
+    }
+
+    /**
+     * Queue (copies of) a batch of LogEvents for our thread.
+     * @param logEvents To be formatted and written.
+     */
+    public void appendBatch(List<LogEvent> logEvents) {
+        for(LogEvent logEvent : logEvents) {
+            append(logEvent);
+        }
+    }
+
+    /**
+     * Let the appender prepare (format) an event, so that our copy of it shares the result.
+     * @param logEvent To be prepared.
+     * @implNote Called by a FormattingStage worker, if any.
+     */
+    public void prepare(LogEvent logEvent) {
+        appender.prepare(logEvent);
+    }
+
+    /**
+     * Does the appender output the calling class or method?
+     * @return true if LogEvents must capture their caller.
+     */
+    public boolean isCallerInfoNeeded() {
+        return appender.isCallerInfoNeeded();
+    }
+
+    /**
+     * Notification that the app is shutting down, giving time to flush before close() is called.
+     */
+    public void notifyShutdown() {
+        appender.notifyShutdown();
+    }
+
+    /**
+     * Stop our thread, which appends whatever is left in the queue, then closes the appender.
+     * If the appender is stuck, give up on it after CLOSE_WAIT_MILLIS, and report how many events it missed.
+     */
+    public void close() {
+        exitThread = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Support.handleLoggerError(false, "QueuedAppender interrupted", null);
+        }
+        if(thread.isAlive()) { // the ring buffer is still our thread's, so leave it alone
+            Support.handleLoggerError(false, "QueuedAppender " + appenderName + " still busy at close, " +
+                    ringBuffer.size() + " events not appended", null);
+        }
+    }
+
+    /**
+     * Get the appender that this one runs.
+     * @return The wrapped appender.
+     */
+    public IAppender getAppender() {
+        return appender;
+    }
+
+    /**
+     * Get the number of events waiting in our queue.
+     * @return Current backlog. (approximate)
+     */
+    public int getBacklog() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Get the highest number of events that have been waiting in our queue.
+     * @return Backlog high-water mark.
+     */
+    public long getMaxBacklog() {
+        return maxBacklog.get();
+    }
+
+    /**
+     * Get the number of events passed to the appender.
+     * @return Count since startup.
+     */
+    public long getAppendedTotal() {
+        return appendedTotal.get();
+    }
+
+    /**
+     * Get the number of events dropped because our queue was full.
+     * @return Count since startup.
+     */
+    public long getDroppedTotal() {
+        return ringBuffer.getDroppedTotal();
+    }
+
+}
@@ -2,6 +2,9 @@ package com.ablestrategies.logger;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Support - Static support methods.
@@ -11,20 +14,49 @@ class Support {
     /** Package names get abbreviated to this length. */
     static int MAX_ABBREV_LGT = 16;
 
+    /** Most class + method combinations whose caller paths are kept, before the cache is emptied. */
+    static int CALLER_PATH_CACHE_SIZE = 4096;
+
+    /** Assembled caller paths, by class name and then method name, each an array indexed by variant. */
+    private static final Map<String, Map<String, String[]>> callerPaths = new ConcurrentHashMap<>();
+
+    /** Number of class + method combinations in callerPaths. (approximate, as it is not locked) */
+    private static final AtomicInteger callerPathCount = new AtomicInteger();
+
+    /** The MAX_ABBREV_LGT that the cached caller paths were abbreviated to. */
+    private static volatile int callerPathsAbbrevLgt = -1;
+
+    /** Frames in this package are Logger internals, not callers. */
+    private static final String LOGGER_PACKAGE = "com.ablestrategies.logger";
+
+    /** Walks only as many frames as needed, reflection frames included (as in Thread.getStackTrace). */
+    private static final StackWalker STACK_WALKER =
+            StackWalker.getInstance(StackWalker.Option.SHOW_REFLECT_FRAMES);
+
     /**
      * Get the Caller's stack trace element.
      * @return Most recent stack trace element not in the Logger package.
      * @apiNote [static] method
      */
     static StackTraceElement getCallerStackTraceElement() {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        int elementIndex =  1; // skip over stackDump()
-        // skip over Logger internal methods...
-        while(elementIndex < stackTrace.length-1
-                && stackTrace[elementIndex].getClassName().startsWith("com.ablestrategies.logger")) {
-            elementIndex++;
-        }
-        return stackTrace[elementIndex];
+        StackWalker.StackFrame frame = getCallerStackFrame();
+        if(frame == null) {
+            return new StackTraceElement(LOGGER_PACKAGE, "unknown", null, -1);
+        }
+        return frame.toStackTraceElement();
+    }
+
+    /**
+     * Get the Caller's stack frame, walking the stack lazily and stopping at the first
+     * frame outside the Logger package (rather than materializing the entire stack trace).
+     * @return Most recent stack frame not in the Logger package, or null if there is none.
+     * @apiNote [static] method
+     */
+    static StackWalker.StackFrame getCallerStackFrame() {
+        return STACK_WALKER.walk(frames -> frames
+                .dropWhile(frame -> frame.getClassName().startsWith(LOGGER_PACKAGE))
+                .findFirst()
+                .orElse(null));
     }
 
     /**
@@ -72,9 +104,77 @@ class Support {
      * @param abbreviate true to abbreviate the package name
      * @return the desired path as a dot-delimited string
      * @apiNote [static] method
+     * @implNote Paths are cached, so after the first call for a given class and method this only does
+     * two lookups. (the cache is emptied if it exceeds CALLER_PATH_CACHE_SIZE or MAX_ABBREV_LGT changes)
      */
     static String assembleCallerPath(LogEventStringGetter getter, boolean showPackage, boolean showClass, boolean abbreviate) {
-        String result = getter.getClassName();
+        String className = getter.getClassName();
+        String methodName = getter.getMethodName();
+        if(className == null || methodName == null) {
+            return buildCallerPath(String.valueOf(className), String.valueOf(methodName), showPackage, showClass, abbreviate);
+        }
+        String[] variants = getCallerPathVariants(className, methodName);
+        int variant = (showPackage ? 4 : 0) + (showClass ? 2 : 0) + (abbreviate ? 1 : 0);
+        String result = variants[variant];
+        if(result == null) {
+            // threads may race to build the same path, but they will all build the same String
+            result = buildCallerPath(className, methodName, showPackage, showClass, abbreviate);
+            variants[variant] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the cached caller path variants for a class and method, adding an empty set if there is none yet.
+     * @param className Dot-delimited package and class name.
+     * @param methodName Method name.
+     * @return Array of caller paths, indexed by variant, null where not yet assembled.
+     * @apiNote [static] method
+     */
+    private static String[] getCallerPathVariants(String className, String methodName) {
+        if(callerPathsAbbrevLgt != MAX_ABBREV_LGT) {
+            clearCallerPaths();
+            callerPathsAbbrevLgt = MAX_ABBREV_LGT;
+        }
+        Map<String, String[]> methods = callerPaths.get(className);
+        if(methods == null) {
+            methods = callerPaths.computeIfAbsent(className, key -> new ConcurrentHashMap<>());
+        }
+        String[] variants = methods.get(methodName);
+        if(variants == null) {
+            if(callerPathCount.incrementAndGet() > CALLER_PATH_CACHE_SIZE) {
+                clearCallerPaths();
+            }
+            variants = methods.computeIfAbsent(methodName, key -> new String[8]);
+        }
+        return variants;
+    }
+
+    /**
+     * Empty the caller path cache.
+     * @apiNote [static] method
+     */
+    static void clearCallerPaths() {
+        callerPaths.clear();
+        callerPathCount.set(0);
+    }
+
+    /**
+     * Assemble a String containing the caller's "package.class.method". (see assembleCallerPath)
+     * @param className Dot-delimited package and class name.
+     * @param methodName Method name.
+     * @param showPackage true to prepend the package name
+     * @param showClass true to include the class name
+     * @param abbreviate true to abbreviate the package name
+     * @return the desired path as a dot-delimited string
+     * @apiNote [static] method
+     */
+    private static String buildCallerPath(String className, String methodName,
+                                          boolean showPackage, boolean showClass, boolean abbreviate) {
+        if(!showClass) {
+            return methodName;
+        }
+        String result = className;
         String packageName = "";
         int lastDotPosition = result.lastIndexOf(".");
         if(lastDotPosition > 0) {
@@ -87,12 +187,7 @@ class Support {
         if(abbreviate) {
             packageName = Support.abbreviate(packageName);
         }
-        String methodName = getter.getMethodName();
-        result = packageName + result + "."  + methodName;
-        if(!showClass) {
-            result = methodName;
-        }
-        return result;
+        return packageName + result + "."  + methodName;
     }
 
     /**
@@ -0,0 +1,19 @@
+package com.ablestrategies.logger;
+
+import java.time.Instant;
+
+/**
+ * SystemClock - Reads the system clock for every event, at whatever precision the platform offers.
+ */
+public class SystemClock implements IClock {
+
+    /**
+     * Get the current time.
+     * @return Nanoseconds since 1970-01-01T00:00:00Z.
+     */
+    public long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+}
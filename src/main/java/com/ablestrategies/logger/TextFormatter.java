@@ -1,5 +1,9 @@
 package com.ablestrategies.logger;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * TextFormatter - Convert a LogEvent to a message String.
  * <br/><br/>
@@ -58,14 +62,59 @@ package com.ablestrategies.logger;
  * <li>If a symbol is corrupt then it will be replaced with ???
  * </ul>
  * @apiNote Class names (m, M, c, and C) include an abbreviated package prefix.
+ * @implNote The prefix is compiled once, and messages are compiled on first use and kept in a
+ * bounded cache, so formatting is a walk over pre-parsed ops. (see TextTemplate) The cache takes
+ * no lock to look up a template, and when it is full it evicts about a quarter of the templates,
+ * those that were not used since the last eviction first. (an approximation of LRU)
+ * Formatting keeps no per-call state in the formatter, so one may be used by several threads at once.
+ * (see FormattingStage)
  */
 public class TextFormatter extends BaseTextFormatter implements ITextFormatter {
 
+    /** Maximum number of compiled message templates that each TextFormatter keeps. */
+    public static int TEMPLATE_CACHE_SIZE = 1024;
+
+    /** Largest format() buffer that is kept for re-use. */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    /** Re-usable buffers for format(), one per thread. */
+    private static final ThreadLocal<StringBuilder> FORMAT_BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /** Getter for each formatting thread, re-targeted at each event, so formatting does not allocate one per event. */
+    private static final ThreadLocal<LogEventStringGetter> GETTERS = ThreadLocal.withInitial(() -> new LogEventStringGetter(null));
+
     /** Default prefix for all messages. */
     private final String prefix;
 
-    /** For counting {} symbols in a message. */
-    private int bracesArgNum;
+    /** The prefix, compiled. */
+    private final TextTemplate prefixTemplate;
+
+    /** True if the prefix contains symbols that refer to the caller. */
+    private final boolean callerInfoNeeded;
+
+    /** Maximum number of compiled message templates that this TextFormatter keeps. */
+    private final int templateCacheSize;
+
+    /** Compiled message templates, by message. */
+    private final Map<String, CachedTemplate> messageTemplates = new ConcurrentHashMap<>();
+
+    /** Held while evicting templates, so that only one thread does it at a time. */
+    private final Object evictionLock = new Object();
+
+    /**
+     * A compiled message template, and whether it has been used since the last eviction.
+     */
+    private static final class CachedTemplate {
+
+        final TextTemplate template;
+
+        /** Set on each use, cleared by evictTemplates(), which gives it a second chance. */
+        volatile boolean recentlyUsed = false;
+
+        CachedTemplate(TextTemplate template) {
+            this.template = template;
+        }
+    }
 
     /**
      * Ctor.
@@ -73,6 +122,39 @@ public class TextFormatter extends BaseTextFormatter implements ITextFormatter {
      */
     public TextFormatter(String prefix) {
         this.prefix = prefix;
+        this.prefixTemplate = TextTemplate.compile(prefix, 1);
+        this.callerInfoNeeded = referencesCallerInfo(prefix);
+        registerSignature(prefix, "dontCare");
+        this.templateCacheSize = Math.max(1, TEMPLATE_CACHE_SIZE);
+    }
+
+    /**
+     * Does our prefix need to know the calling class/method? (i.e. @m, @c, @p, or @P)
+     * @return true if events must capture their caller for this formatter.
+     */
+    public boolean isCallerInfoNeeded() {
+        return callerInfoNeeded;
+    }
+
+    /**
+     * Check a prefix or message for replacement symbols that refer to the caller.
+     * @param text Prefix or message, possibly containing replacement symbols.
+     * @return true if it contains @m, @c, @p, or @P.
+     * @apiNote [static] method
+     */
+    static boolean referencesCallerInfo(String text) {
+        if(text == null) {
+            return false;
+        }
+        int atSignPos = text.indexOf('@');
+        while(atSignPos >= 0 && atSignPos < text.length() - 1) {
+            char symbol = text.charAt(atSignPos + 1);
+            if(symbol == 'm' || symbol == 'c' || symbol == 'p' || symbol == 'P') {
+                return true;
+            }
+            atSignPos = text.indexOf('@', atSignPos + (symbol == '@' ? 2 : 1));
+        }
+        return false;
     }
 
     /**
@@ -81,134 +163,109 @@ public class TextFormatter extends BaseTextFormatter implements ITextFormatter {
      * @return The resultant textual message.
      */
     public String format(LogEvent logEvent) {
-        String cache = getCachedResultIfPresent(this, prefix, "dontCare", logEvent);
+        String cache = getCachedResultIfPresent(logEvent);
         if(cache != null) {
             return cache;
         }
-        LogEventStringGetter getter = new LogEventStringGetter(logEvent);
-        String message = prefix + getter.getMessage();
-        StringBuilder buffer = new StringBuilder();
-        int messageLgt = message.length();
-        int messagePos = 0;
-        bracesArgNum = 1;
-        while(messagePos < messageLgt) {
-            if(message.charAt(messagePos) == '{') {
-                messagePos = substituteBraces(message, messagePos, buffer, getter);
-            } else if (message.charAt(messagePos) == '@') {
-                messagePos = substituteAtSign(message, messagePos, buffer, getter);
-            } else {
-                buffer.append(message.charAt(messagePos));
-            }
-            messagePos++;
-        }
+        StringBuilder buffer = FORMAT_BUFFERS.get();
+        buffer.setLength(0);
+        appendFormatted(logEvent, buffer);
         String result = buffer.toString();
+        if(buffer.capacity() > MAX_RETAINED_BUFFER) {
+            FORMAT_BUFFERS.remove(); // don't hang on to the buffer for one huge message
+        }
         cacheResult(logEvent, result);
         return result;
     }
 
     /**
-     * Handle an {} replacement symbol.
-     * @param message Source of replacement symbol
-     * @param messagePos Location of "{"} in message
-     * @param buffer To update/append to.
-     * @param getter Source of substitution data and arguments.
-     * @return updated messagePos.
-     * @apiNote Also modifies object state - member variable bracesArgNum.
+     * Perform the conversion, appending to a buffer rather than returning a String.
+     * @param logEvent To be formatted as a string message.
+     * @param buffer To append the resultant textual message to.
+     * @apiNote If another formatter with the same signature already formatted this event then that result
+     * is appended. The result is only cached if another formatter has the same signature, as that takes a String.
+     * @implNote The getter is per thread, so what remains per event is the Strings rendered for its arguments,
+     * its timestamps (once per second), and a template for each message not yet compiled.
      */
-    private int substituteBraces(String message, int messagePos, StringBuilder buffer, LogEventStringGetter getter) {
-        char ch = message.charAt(++messagePos);
-        if(ch == '{') {
-            buffer.append("{");
-            return messagePos;
-        }
-        if(Character.isDigit(ch)) {
-            bracesArgNum = ch - '0';
-            messagePos++;
+    public void formatTo(LogEvent logEvent, StringBuilder buffer) {
+        String cache = getCachedResultIfPresent(logEvent);
+        if(cache != null) {
+            buffer.append(cache);
+            return;
         }
-        if(message.charAt(messagePos) != '}') {
-            Support.handleLoggerError(false, "TextFormatter - Bad replacement symbol (" + message + ")", null);
-            return messagePos;
+        int start = buffer.length();
+        appendFormatted(logEvent, buffer);
+        if(isSignatureShared()) {
+            cacheResult(logEvent, buffer.substring(start));
         }
-        buffer.append(getter.getAnyTypeArgumentAsString(bracesArgNum));
-        ++bracesArgNum;
-        return messagePos;
     }
 
     /**
-     * Handle an @-sign replacement symbol.
-     * @param message Source of replacement symbol
-     * @param messagePos Location of @-sign in message
-     * @param buffer To update/append to.
-     * @param getter Source of substitution data and arguments.
-     * @return updated messagePos.
+     * Release our slot in the formatters cache, for re-use by other formatters. (called by the appender's close)
+     * This can still format after that, it just no longer shares results.
      */
-    private int substituteAtSign(String message, int messagePos, StringBuilder buffer, LogEventStringGetter getter) {
-        int argNum = 0;
-        char ch = message.charAt(++messagePos);
-        if (Character.isDigit(ch)) {
-            argNum = ch - '0';
-        }
-        if(argNum > 0) {
-            buffer.append(expandMessageArg(getter, message.charAt(++messagePos), argNum));
-        } else {
-            buffer.append(expandEventValue(getter, message.charAt(++messagePos)));
+    public void close() {
+        releaseSignature();
+    }
+
+    /**
+     * Format the prefix and message, appending them to a buffer.
+     * @param logEvent To be formatted.
+     * @param buffer To append to.
+     */
+    private void appendFormatted(LogEvent logEvent, StringBuilder buffer) {
+        LogEventStringGetter getter = GETTERS.get();
+        LogEvent previous = getter.setEvent(logEvent);
+        try {
+            TextTemplate messageTemplate = getMessageTemplate(String.valueOf(getter.getMessage()));
+            prefixTemplate.appendTo(buffer, getter);
+            messageTemplate.appendTo(buffer, getter);
+        } finally {
+            getter.setEvent(previous); // in case an argument's toString() formatted another event on this thread
         }
-        return messagePos;
     }
 
     /**
-     * Perform symbol replacement from varargs argument list.
-     * @param getter access to the LogEvent.
-     * @param symbol symbol from message
-     * @param argNum one-based argument number
-     * @return replacement string
+     * Get the compiled template for a message, compiling it if it is not cached.
+     * @param message The message, with replacement symbols.
+     * @return The compiled message.
      */
-    private String expandMessageArg(LogEventStringGetter getter, char symbol, int argNum) {
-        return switch (symbol) {
-            case 's' -> getter.getStringArgumentAsString(argNum);
-            case 'b' -> getter.getBooleanArgumentAsString(argNum).substring(0, 1).toUpperCase();
-            case 'B' -> getter.getBooleanArgumentAsString(argNum);
-            case 'i' -> getter.getLongArgumentAsString(argNum);
-            case 'h' -> getter.getHexArgumentAsString(argNum);
-            case 'f' -> getter.getDoubleArgumentAsString(argNum);
-            case 'd' -> getter.getLocalDateTimeArgumentAsString(argNum);
-            case 'D' -> getter.getUtcDateTimeArgumentAsString(argNum);
-            case 'e' -> getter.getExceptionMessageArgumentAsString(argNum);
-            case 'E' -> getter.getExceptionStackDumpArgumentAsString(argNum);
-            case 't' -> getter.getToStringArgumentAsString(argNum);
-            case 'o' -> getter.getObjectArgumentAsString(argNum, 1);
-            case 'O' -> getter.getObjectArgumentAsString(argNum, 3);
-            default -> "###";
-        };
+    TextTemplate getMessageTemplate(String message) {
+        CachedTemplate cached = messageTemplates.get(message);
+        if(cached == null) {
+            if(messageTemplates.size() >= templateCacheSize) {
+                evictTemplates();
+            }
+            // numbering of {} symbols continues from the prefix
+            cached = new CachedTemplate(TextTemplate.compile(message, prefixTemplate.getNextBracesArgNum()));
+            CachedTemplate raced = messageTemplates.putIfAbsent(message, cached);
+            return raced != null ? raced.template : cached.template;
+        }
+        if(!cached.recentlyUsed) {
+            cached.recentlyUsed = true; // only written once per eviction, so hits don't contend
+        }
+        return cached.template;
     }
 
     /**
-     * Perform symbol replacement on Event values.
-     * @param getter access to the LogEvent.
-     * @param symbol symbol from message
-     * @return replacement string
+     * Make room in the message template cache, by evicting about a quarter of it. Templates that have not
+     * been used since the last eviction go first, then (if that is not enough) any others.
      */
-    private String expandEventValue(LogEventStringGetter getter, char symbol) {
-        return switch (symbol) {
-            case 'l' -> Long.toString(getter.getLevel().getValue());
-            case 'L' -> getter.getLevel().name();
-            case 'd' -> getter.getTimestampLocalDateAsString();
-            case 'D' -> getter.getTimestampUtcDateAsString();
-            case 't' -> getter.getTimestampLocalTimeAsString();
-            case 'T' -> getter.getTimestampUtcTimeAsString();
-            case 'u' -> getter.getTimestampLocalDateTimeAsString();
-            case 'U' -> getter.getTimestampUtcDateTimeAsString();
-            case 'n' -> getter.getTimestampNanosAsString();
-            case 'e' -> getter.getThrowableMessage();
-            case 'E' -> getter.getThrowableStackDump();
-            case 'm' -> Support.assembleCallerPath(getter, false, false, true);
-            case 'c' -> Support.assembleCallerPath(getter, false, true, true);
-            case 'p' -> Support.assembleCallerPath(getter, true, true, true);
-            case 'P' -> Support.assembleCallerPath(getter, true, true, false);
-            case 'h' -> getter.getThreadName();
-            case '@' -> "@";
-            default -> "###";
-        };
+    private void evictTemplates() {
+        synchronized (evictionLock) {
+            int target = templateCacheSize * 3 / 4;
+            for(int pass = 0; pass < 2 && messageTemplates.size() > target; pass++) {
+                Iterator<CachedTemplate> iterator = messageTemplates.values().iterator();
+                while(iterator.hasNext() && messageTemplates.size() > target) {
+                    CachedTemplate cached = iterator.next();
+                    if(pass == 0 && cached.recentlyUsed) {
+                        cached.recentlyUsed = false;
+                    } else {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
     }
 
 }
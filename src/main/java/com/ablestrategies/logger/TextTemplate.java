@@ -0,0 +1,246 @@
+package com.ablestrategies.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TextTemplate - A prefix or message, compiled into literal chunks and substitution ops.
+ * <p/>
+ * Parsing the @ and {} replacement symbols (see TextFormatter) is done once, by compile(),
+ * so formatting an event is just a walk over the ops. Braces are resolved to argument numbers
+ * at compile time, and escapes (@@ and {{) become part of the literal chunks.
+ * @implNote Immutable, so one may be shared by any number of threads.
+ */
+final class TextTemplate {
+
+    /** Op types. */
+    private static final byte LITERAL = 0, MESSAGE_ARG = 1, EVENT_VALUE = 2, ANY_TYPE_ARG = 3;
+
+    /** Type of each op. */
+    private final byte[] opTypes;
+
+    /** For LITERAL ops, the text. */
+    private final String[] literals;
+
+    /** For MESSAGE_ARG and EVENT_VALUE ops, the symbol. (i.e. the 'i' of @1i) */
+    private final char[] symbols;
+
+    /** For MESSAGE_ARG and ANY_TYPE_ARG ops, the one-based argument number. */
+    private final int[] argNums;
+
+    /** The argument number that the next {} would refer to, if the template were longer. */
+    private final int nextBracesArgNum;
+
+    /** Total length of the literal chunks, for sizing buffers. */
+    private final int literalLength;
+
+    /**
+     * Ctor.
+     * @param ops The compiled ops.
+     * @param nextBracesArgNum The argument number that a following {} would refer to.
+     */
+    private TextTemplate(List<Op> ops, int nextBracesArgNum) {
+        int opCount = ops.size();
+        opTypes = new byte[opCount];
+        literals = new String[opCount];
+        symbols = new char[opCount];
+        argNums = new int[opCount];
+        int length = 0;
+        for(int index = 0; index < opCount; index++) {
+            Op op = ops.get(index);
+            opTypes[index] = op.type;
+            literals[index] = op.literal;
+            symbols[index] = op.symbol;
+            argNums[index] = op.argNum;
+            length += op.literal == null ? 0 : op.literal.length();
+        }
+        this.nextBracesArgNum = nextBracesArgNum;
+        this.literalLength = length;
+    }
+
+    /** One op, while compiling. */
+    private record Op(byte type, String literal, char symbol, int argNum) {}
+
+    /**
+     * Compile a prefix or message.
+     * @param text The prefix or message, with replacement symbols.
+     * @param firstBracesArgNum The argument number that the first {} refers to. (1, unless this follows a prefix)
+     * @return The compiled template.
+     * @apiNote static method
+     */
+    static TextTemplate compile(String text, int firstBracesArgNum) {
+        List<Op> ops = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int bracesArgNum = firstBracesArgNum;
+        int textLgt = text.length();
+        boolean corrupt = false;
+        for(int textPos = 0; textPos < textLgt; textPos++) {
+            char ch = text.charAt(textPos);
+            char next = textPos + 1 < textLgt ? text.charAt(textPos + 1) : 0;
+            if(ch == '{') {
+                if(next == '{') {
+                    literal.append('{');
+                    textPos++;
+                    continue;
+                }
+                if(Character.isDigit(next)) {
+                    bracesArgNum = next - '0';
+                    textPos++;
+                    next = textPos + 1 < textLgt ? text.charAt(textPos + 1) : 0;
+                }
+                textPos++;
+                if(next != '}') {
+                    literal.append("???");
+                    corrupt = true;
+                    continue;
+                }
+                addOp(ops, literal, new Op(ANY_TYPE_ARG, null, '}', bracesArgNum++));
+            } else if(ch == '@') {
+                textPos++;
+                if(next == '@') {
+                    literal.append('@');
+                } else if(next >= '1' && next <= '9') {
+                    textPos++;
+                    if(textPos >= textLgt) {
+                        literal.append("???");
+                        corrupt = true;
+                        continue;
+                    }
+                    addOp(ops, literal, new Op(MESSAGE_ARG, null, text.charAt(textPos), next - '0'));
+                } else if(next == 0) {
+                    literal.append("???");
+                    corrupt = true;
+                } else {
+                    addOp(ops, literal, new Op(EVENT_VALUE, null, next, 0));
+                }
+            } else {
+                literal.append(ch);
+            }
+        }
+        addOp(ops, literal, null);
+        if(corrupt) {
+            Support.handleLoggerError(false, "TextFormatter - Bad replacement symbol (" + text + ")", null);
+        }
+        return new TextTemplate(ops, bracesArgNum);
+    }
+
+    /**
+     * Add an op, preceded by the pending literal text, if any.
+     * @param ops The ops so far.
+     * @param literal (in/out) Pending literal text, to be added first, and then emptied.
+     * @param op The op to be added, or null to just add the pending literal text.
+     */
+    private static void addOp(List<Op> ops, StringBuilder literal, Op op) {
+        if(!literal.isEmpty()) {
+            ops.add(new Op(LITERAL, literal.toString(), ' ', 0));
+            literal.setLength(0);
+        }
+        if(op != null) {
+            ops.add(op);
+        }
+    }
+
+    /**
+     * Get the argument number that a {} following this template would refer to.
+     * @return One-based argument number.
+     */
+    int getNextBracesArgNum() {
+        return nextBracesArgNum;
+    }
+
+    /**
+     * Get the length of the literal text, as a hint for sizing a buffer.
+     * @return Number of literal characters.
+     */
+    int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     * Format an event, by walking the ops.
+     * @param buffer To append the result to.
+     * @param getter Access to the LogEvent.
+     */
+    void appendTo(StringBuilder buffer, LogEventStringGetter getter) {
+        for(int index = 0; index < opTypes.length; index++) {
+            switch (opTypes[index]) {
+                case LITERAL -> buffer.append(literals[index]);
+                case MESSAGE_ARG -> appendMessageArg(buffer, getter, symbols[index], argNums[index]);
+                case EVENT_VALUE -> buffer.append(expandEventValue(getter, symbols[index]));
+                default -> buffer.append(getter.getAnyTypeArgumentAsString(argNums[index]));
+            }
+        }
+    }
+
+    /**
+     * Perform symbol replacement from varargs argument list, appending to the buffer.
+     * @param buffer To append the result to.
+     * @param getter access to the LogEvent.
+     * @param symbol symbol from message
+     * @param argNum one-based argument number
+     * @implNote Object dumps are written straight to the buffer, as they can be large, and longs to save a String.
+     */
+    private static void appendMessageArg(StringBuilder buffer, LogEventStringGetter getter, char symbol, int argNum) {
+        switch (symbol) {
+            case 'i' -> getter.appendLongArgument(buffer, argNum);
+            case 'o' -> getter.appendObjectArgument(buffer, argNum, 1);
+            case 'O' -> getter.appendObjectArgument(buffer, argNum, 3);
+            default -> buffer.append(expandMessageArg(getter, symbol, argNum));
+        }
+    }
+
+    /**
+     * Perform symbol replacement from varargs argument list.
+     * @param getter access to the LogEvent.
+     * @param symbol symbol from message
+     * @param argNum one-based argument number
+     * @return replacement string
+     */
+    private static String expandMessageArg(LogEventStringGetter getter, char symbol, int argNum) {
+        return switch (symbol) {
+            case 's' -> getter.getStringArgumentAsString(argNum);
+            case 'b' -> getter.getBooleanArgumentAsString(argNum).substring(0, 1).toUpperCase();
+            case 'B' -> getter.getBooleanArgumentAsString(argNum);
+            case 'i' -> getter.getLongArgumentAsString(argNum);
+            case 'h' -> getter.getHexArgumentAsString(argNum);
+            case 'f' -> getter.getDoubleArgumentAsString(argNum);
+            case 'd' -> getter.getLocalDateTimeArgumentAsString(argNum);
+            case 'D' -> getter.getUtcDateTimeArgumentAsString(argNum);
+            case 'e' -> getter.getExceptionMessageArgumentAsString(argNum);
+            case 'E' -> getter.getExceptionStackDumpArgumentAsString(argNum);
+            case 't' -> getter.getToStringArgumentAsString(argNum);
+            case 'o' -> getter.getObjectArgumentAsString(argNum, 1);
+            case 'O' -> getter.getObjectArgumentAsString(argNum, 3);
+            default -> "###";
+        };
+    }
+
+    /**
+     * Perform symbol replacement on Event values.
+     * @param getter access to the LogEvent.
+     * @param symbol symbol from message
+     * @return replacement string
+     */
+    private static String expandEventValue(LogEventStringGetter getter, char symbol) {
+        return switch (symbol) {
+            case 'l' -> Long.toString(getter.getLevel().getValue());
+            case 'L' -> getter.getLevel().name();
+            case 'd' -> getter.getTimestampLocalDateAsString();
+            case 'D' -> getter.getTimestampUtcDateAsString();
+            case 't' -> getter.getTimestampLocalTimeAsString();
+            case 'T' -> getter.getTimestampUtcTimeAsString();
+            case 'u' -> getter.getTimestampLocalDateTimeAsString();
+            case 'U' -> getter.getTimestampUtcDateTimeAsString();
+            case 'n' -> getter.getTimestampNanosAsString();
+            case 'e' -> getter.getThrowableMessage();
+            case 'E' -> getter.getThrowableStackDump();
+            case 'm' -> Support.assembleCallerPath(getter, false, false, true);
+            case 'c' -> Support.assembleCallerPath(getter, false, true, true);
+            case 'p' -> Support.assembleCallerPath(getter, true, true, true);
+            case 'P' -> Support.assembleCallerPath(getter, true, true, false);
+            case 'h' -> getter.getThreadName();
+            default -> "###";
+        };
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.ablestrategies.logger;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utf8Encoder - Encodes text to UTF-8, into a re-usable ByteBuffer, without allocating.
+ * <p/>
+ * Runs of ASCII (most log text) are copied a byte per char. Anything else is encoded by hand,
+ * rather than via a CharsetEncoder, and an unpaired surrogate becomes '?', as String.getBytes() does.
+ * @implNote Not thread-safe, each appender has its own.
+ */
+final class Utf8Encoder {
+
+    /** The encoded bytes, grown (and kept) as needed. */
+    private ByteBuffer bytes;
+
+    /** The chars being encoded, copied out in bulk so the loops below work on an array. */
+    private char[] chars;
+
+    /**
+     * Ctor.
+     * @param initialCapacity Bytes to start with.
+     */
+    Utf8Encoder(int initialCapacity) {
+        bytes = ByteBuffer.allocate(Math.max(16, initialCapacity));
+        chars = new char[bytes.capacity()];
+    }
+
+    /**
+     * Encode all of some text.
+     * @param text The text.
+     * @return The encoded bytes, from position to limit. (valid until the next encode)
+     */
+    ByteBuffer encode(CharSequence text) {
+        return encode(text, 0, text.length());
+    }
+
+    /**
+     * Encode part of some text.
+     * @param text The text.
+     * @param start Index of the first char to encode.
+     * @param end Index after the last char to encode.
+     * @return The encoded bytes, from position to limit. (valid until the next encode)
+     */
+    ByteBuffer encode(CharSequence text, int start, int end) {
+        end = copyChars(text, start, end);
+        byte[] array = ensureCapacity(end, 0);
+        int length = 0;
+        int index = 0;
+        // fast path, ASCII
+        while(index < end) {
+            char ch = chars[index];
+            if(ch >= 0x80) {
+                break;
+            }
+            array[length++] = (byte)ch;
+            index++;
+        }
+        if(index < end) {
+            array = ensureCapacity((end - index) * 3, length); // no char takes more than 3 bytes
+        }
+        while(index < end) {
+            char ch = chars[index++];
+            if(ch < 0x80) {
+                array[length++] = (byte)ch;
+            } else if(ch < 0x800) {
+                array[length++] = (byte)(0xc0 | (ch >> 6));
+                array[length++] = (byte)(0x80 | (ch & 0x3f));
+            } else if(Character.isHighSurrogate(ch) && index < end && Character.isLowSurrogate(chars[index])) {
+                int codePoint = Character.toCodePoint(ch, chars[index++]);
+                array[length++] = (byte)(0xf0 | (codePoint >> 18));
+                array[length++] = (byte)(0x80 | ((codePoint >> 12) & 0x3f));
+                array[length++] = (byte)(0x80 | ((codePoint >> 6) & 0x3f));
+                array[length++] = (byte)(0x80 | (codePoint & 0x3f));
+            } else if(Character.isSurrogate(ch)) {
+                array[length++] = '?';
+            } else {
+                array[length++] = (byte)(0xe0 | (ch >> 12));
+                array[length++] = (byte)(0x80 | ((ch >> 6) & 0x3f));
+                array[length++] = (byte)(0x80 | (ch & 0x3f));
+            }
+        }
+        bytes.clear().limit(length);
+        return bytes;
+    }
+
+    /**
+     * Copy the chars to be encoded into the char array, growing it if need be.
+     * @param text The text.
+     * @param start Index of the first char to copy.
+     * @param end Index after the last char to copy.
+     * @return Number of chars copied.
+     */
+    private int copyChars(CharSequence text, int start, int end) {
+        int count = end - start;
+        if(count > chars.length) {
+            chars = new char[Math.max(count, chars.length * 2)];
+        }
+        if(text instanceof StringBuilder builder) {
+            builder.getChars(start, end, chars, 0);
+        } else if(text instanceof String string) {
+            string.getChars(start, end, chars, 0);
+        } else {
+            for(int index = 0; index < count; index++) {
+                chars[index] = text.charAt(start + index);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Make sure that the buffer has room for more bytes, growing it (keeping what's there) if not.
+     * @param moreBytes Number of bytes that are to be added.
+     * @param length Number of bytes already in the buffer.
+     * @return The buffer's array.
+     */
+    private byte[] ensureCapacity(int moreBytes, int length) {
+        if(length + moreBytes > bytes.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(length + moreBytes, bytes.capacity() * 2));
+            System.arraycopy(bytes.array(), 0, bigger.array(), 0, length);
+            bytes = bigger;
+        }
+        return bytes.array();
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.ablestrategies.logger;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WaitStrategy - How the AppenderThread waits for events when the queue is empty.
+ * <p/>
+ * Configured via "jlogger.queue.wait". This trades CPU for latency...
+ * <ul>
+ *  <li> Blocking - Sleep until an event is published. No CPU used while idle. (default) </li>
+ *  <li> Park - Spin briefly, then sleep for increasingly longer periods, up to 10ms. </li>
+ *  <li> Yield - Yield the CPU to other threads, but otherwise keep checking. </li>
+ *  <li> BusySpin - Keep checking. Lowest latency, but uses a whole CPU, always. </li>
+ * </ul>
+ * Blocking is the only one that makes the application threads wake up the AppenderThread,
+ * which they do only if it is actually asleep.
+ */
+public enum WaitStrategy {
+
+    /** Sleep until an event is published. */
+    Blocking,
+
+    /** Spin, then yield, then sleep with back-off. */
+    Park,
+
+    /** Yield the CPU between checks. */
+    Yield,
+
+    /** Check continuously. */
+    BusySpin;
+
+    /** Longest sleep for Park. */
+    private static final long MAX_PARK_NANOS = 10_000_000;
+
+    /**
+     * Wait a bit, because the queue is empty.
+     * @param ringBuffer The queue that is being waited on.
+     * @param idleCount How many times in a row we have waited. (zero the first time)
+     * @implNote Called only by the consumer thread.
+     */
+    void idle(EventRingBuffer ringBuffer, int idleCount) {
+        switch(this) {
+            case Blocking -> ringBuffer.awaitPublished();
+            case Park -> {
+                if(idleCount < 100) {
+                    Thread.onSpinWait();
+                } else if(idleCount < 200) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(Math.min(1000L << Math.min(idleCount - 200, 20), MAX_PARK_NANOS));
+                }
+            }
+            case Yield -> Thread.yield();
+            case BusySpin -> Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Look up a WaitStrategy based on its name.
+     * @param name Blocking, Park, etc. (not case-sensitive)
+     * @return corresponding WaitStrategy. Blocking if not found.
+     * @apiNote static method
+     */
+    public static WaitStrategy fromName(String name) {
+        for(WaitStrategy strategy : WaitStrategy.values()) {
+            if(strategy.name().equalsIgnoreCase(name.trim())) {
+                return strategy;
+            }
+        }
+        return WaitStrategy.Blocking;
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.ablestrategies.logger;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * BenchmarkHarness - A small JMH-style harness for the Logger benchmarks: warm-up iterations, then measured
+ * iterations, with results fed to a Blackhole, so that each benchmark is only its setup and its operation.
+ * <p/>
+ * JMH itself is not a dependency of this project, so there is no forking and no dead-code analysis. The numbers
+ * are rough; compare them with each other, on one machine, not with anybody else's.
+ */
+class BenchmarkHarness {
+
+    /** Un-timed iterations, to let the JIT settle, before each benchmark. */
+    static int WARMUP_ITERATIONS = 3;
+
+    /** Timed iterations of each benchmark. (the mean and spread of these are reported) */
+    static int MEASUREMENT_ITERATIONS = 5;
+
+    /** Operations per iteration of a measure() benchmark. */
+    static int OPERATIONS = 100_000;
+
+    /**
+     * Blackhole - Consumes results, so that the JIT cannot discard the work that produced them.
+     */
+    static class Blackhole {
+
+        /** Everything consumed so far. (not volatile, racy from several threads, only printed at the end) */
+        private long sink;
+
+        /**
+         * Consume a result.
+         * @param value The result, usually a length or a count.
+         */
+        void consume(long value) {
+            sink += value;
+        }
+
+        /**
+         * Get everything consumed so far.
+         * @return The sum of the results.
+         */
+        long getSink() {
+            return sink;
+        }
+
+    }
+
+    /** One operation of a measure() benchmark. */
+    interface Operation {
+        void run(Blackhole blackhole);
+    }
+
+    /** One whole iteration of a score() benchmark, returning its score. */
+    interface Iteration {
+        double run(Blackhole blackhole) throws InterruptedException;
+    }
+
+    /** Shared by all benchmarks. */
+    private static final Blackhole blackhole = new Blackhole();
+
+    /**
+     * Warm up, then time, an operation and print its average cost (and garbage) per operation.
+     * @param description What is being measured.
+     * @param operation One operation.
+     */
+    static void measure(String description, Operation operation) {
+        for(int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+            for(int i = 0; i < OPERATIONS; i++) {
+                operation.run(blackhole);
+            }
+        }
+        double[] nanosPerOp = new double[MEASUREMENT_ITERATIONS];
+        long startBytes = allocatedBytes();
+        for(int iteration = 0; iteration < MEASUREMENT_ITERATIONS; iteration++) {
+            long start = System.nanoTime();
+            for(int i = 0; i < OPERATIONS; i++) {
+                operation.run(blackhole);
+            }
+            nanosPerOp[iteration] = (double)(System.nanoTime() - start) / OPERATIONS;
+        }
+        double bytesPerOp = (double)(allocatedBytes() - startBytes) / MEASUREMENT_ITERATIONS / OPERATIONS;
+        System.out.printf("  %-55s %10.1f +- %6.1f ns/op %8.1f bytes/op%n", description,
+                mean(nanosPerOp), spread(nanosPerOp), bytesPerOp);
+    }
+
+    /**
+     * Warm up, then run, an iteration that scores itself (events/s, MB/s, latency) and print its mean score.
+     * @param description What is being measured.
+     * @param unit The unit of the score.
+     * @param iteration One whole iteration.
+     */
+    static void score(String description, String unit, Iteration iteration) {
+        try {
+            for(int i = 0; i < WARMUP_ITERATIONS; i++) {
+                iteration.run(blackhole);
+            }
+            double[] scores = new double[MEASUREMENT_ITERATIONS];
+            for(int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+                scores[i] = iteration.run(blackhole);
+            }
+            System.out.printf("  %-55s %10.1f +- %6.1f %s%n", description, mean(scores), spread(scores), unit);
+        } catch (InterruptedException e) {
+            System.out.println("  " + description + " interrupted");
+        }
+    }
+
+    /**
+     * Print a result that a benchmark has measured for itself.
+     * @param description What was measured.
+     * @param result The result, already formatted.
+     */
+    static void report(String description, String result) {
+        System.out.printf("  %-55s %s%n", description, result);
+    }
+
+    /**
+     * Get the blackhole, for benchmarks that run their own threads.
+     * @return The shared Blackhole.
+     */
+    static Blackhole getBlackhole() {
+        return blackhole;
+    }
+
+    /**
+     * Get the mean of some results.
+     * @param values The results.
+     * @return Their mean.
+     */
+    private static double mean(double[] values) {
+        double sum = 0;
+        for(double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Get the spread of some results: half the distance from the smallest to the largest.
+     * @param values The results.
+     * @return Their spread.
+     */
+    private static double spread(double[] values) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for(double value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return (max - min) / 2;
+    }
+
+    /**
+     * Get the number of bytes allocated by this thread so far, if the JVM can tell us.
+     * @return Allocated bytes, or 0 if not supported.
+     */
+    private static long allocatedBytes() {
+        if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean) {
+            return threadMXBean.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.ablestrategies.logger;
+
+import static com.ablestrategies.logger.BenchmarkHarness.measure;
+
+/**
+ * CallerBenchmarks - Capturing the caller of a Logger method, and assembling its @p path.
+ * <p/>
+ * The behaviour is covered by LogEventTest and SupportTest; these only measure it.
+ */
+class CallerBenchmarks {
+
+    /**
+     * Caller capture: the old full stack trace vs. StackWalker vs. skipping it altogether, then
+     * assembling the caller path with and without the cache.
+     */
+    static void benchmarkCallerCapture() {
+        measure("LogEvent, Thread.getStackTrace() caller", blackhole -> {
+            StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+            int elementIndex = 1;
+            while(elementIndex < stackTrace.length - 1
+                    && stackTrace[elementIndex].getClassName().startsWith("com.ablestrategies.logger")) {
+                elementIndex++;
+            }
+            blackhole.consume(stackTrace[elementIndex].getMethodName().length());
+            blackhole.consume(new LogEvent(false, Level.Info, "Message {}", null).message.length());
+        });
+        measure("LogEvent, StackWalker caller", blackhole ->
+                blackhole.consume(new LogEvent(true, Level.Info, "Message {}", null).methodName.length()));
+        measure("LogEvent, caller not needed", blackhole ->
+                blackhole.consume(new LogEvent(false, Level.Info, "Message {}", null).message.length()));
+        LogEvent event = new LogEvent(false, Level.Info, "Message {}", null);
+        event.className = "com.ablestrategies.example.service.OrderService";
+        event.methodName = "placeOrder";
+        LogEventStringGetter getter = new LogEventStringGetter(event);
+        measure("@p caller path, cleared cache", blackhole -> {
+            Support.clearCallerPaths();
+            blackhole.consume(Support.assembleCallerPath(getter, true, true, true).length());
+        });
+        measure("@p caller path, cached", blackhole ->
+                blackhole.consume(Support.assembleCallerPath(getter, true, true, true).length()));
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockTest {
+
+    private final IClock originalClock = LogEvent.clock;
+
+    @AfterEach
+    void tearDown() {
+        LogEvent.clock = originalClock;
+    }
+
+    @Test
+    void testManualClock() {
+        Instant start = Instant.parse("2025-09-23T13:26:44.123456789Z");
+        ManualClock clock = new ManualClock(start);
+        LogEvent.clock = clock;
+        LogEvent event1 = new LogEvent(false, Level.Info, "", null);
+        clock.advanceNanos(1_000_000_001L);
+        LogEvent event2 = new LogEvent(false, Level.Info, "", null);
+        LogEventStringGetter getter1 = new LogEventStringGetter(event1);
+        LogEventStringGetter getter2 = new LogEventStringGetter(event2);
+        System.out.println("Testing ManualClock (" + getter1.getTimestampNanosAsString() + ", " +
+                getter2.getTimestampNanosAsString() + ")");
+        assertEquals("123456789", getter1.getTimestampNanosAsString());
+        assertEquals("123456790", getter2.getTimestampNanosAsString());
+        assertEquals(1_000_000_001L, getter2.getTimestampEpochNanos() - getter1.getTimestampEpochNanos());
+        assertEquals(LocalDateTime.ofInstant(start, ZoneId.systemDefault()), getter1.getTimestamp());
+        assertEquals(getter1.getTimestamp().plusSeconds(1).getSecond(), getter2.getTimestamp().getSecond());
+    }
+
+    @Test
+    void testSystemClock() {
+        long before = System.currentTimeMillis();
+        long nanos = new SystemClock().epochNanos();
+        long after = System.currentTimeMillis();
+        System.out.println("Testing SystemClock (" + nanos + ")");
+        assertTrue(nanos / 1_000_000L >= before);
+        assertTrue(nanos / 1_000_000L <= after);
+    }
+
+    @Test
+    void testCoarseClock() throws InterruptedException {
+        CoarseClock clock = new CoarseClock(CoarseClock.TICK_MILLIS);
+        long first = clock.epochNanos();
+        Thread.sleep(50);
+        long second = clock.epochNanos();
+        clock.close();
+        System.out.println("Testing CoarseClock (" + (second - first) + "ns)");
+        assertTrue(second > first);
+        assertTrue(Math.abs(System.currentTimeMillis() - second / 1_000_000L) < 1000);
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingBufferTest {
+
+    @Test
+    void testClaimPublishTake() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(4);
+        LogEvent spare = new LogEvent();
+        assertNull(ringBuffer.take(spare));
+        LogEvent event = ringBuffer.claim(Level.Info);
+        event.populate(false, Level.Info, "ABC", null);
+        assertNull(ringBuffer.take(spare)); // claimed, but not yet published
+        ringBuffer.publish(event);
+        LogEvent taken = ringBuffer.take(spare);
+        System.out.println("Testing EventRingBuffer.take (" + taken + ")");
+        assertSame(event, taken);
+        assertEquals("ABC", taken.message);
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    void testCapacity() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(3);
+        System.out.println("Testing EventRingBuffer.capacity (" + ringBuffer.capacity() + ")");
+        assertEquals(4, ringBuffer.capacity());
+        for(int i = 0; i < 4; i++) {
+            LogEvent event = ringBuffer.tryClaim();
+            assertNotNull(event);
+            ringBuffer.publish(event);
+        }
+        assertNull(ringBuffer.tryClaim());
+        assertEquals(4, ringBuffer.size());
+        assertNotNull(ringBuffer.take(new LogEvent()));
+        assertNotNull(ringBuffer.tryClaim()); // the slot was freed by take()
+    }
+
+    @Test
+    void testMultipleProducers() throws InterruptedException {
+        final int producers = 8;
+        final int eventsPerProducer = 20_000;
+        EventRingBuffer ringBuffer = new EventRingBuffer(64);
+        List<Thread> threads = new ArrayList<>();
+        for(int p = 0; p < producers; p++) {
+            final String producerName = "" + p;
+            Thread thread = new Thread(() -> {
+                for(int i = 0; i < eventsPerProducer; i++) {
+                    LogEvent event = ringBuffer.claim(Level.Diag);
+                    event.populate(false, Level.Diag, producerName, new Object[] {i});
+                    ringBuffer.publish(event);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int[] nextExpected = new int[producers];
+        LogEvent spare = new LogEvent();
+        int taken = 0;
+        while(taken < producers * eventsPerProducer) {
+            LogEvent event = ringBuffer.take(spare);
+            if(event == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = Integer.parseInt(event.message);
+            assertEquals(nextExpected[producer]++, (int)(Integer)event.arguments[0]);
+            spare = event;
+            taken++;
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("Testing EventRingBuffer with " + producers + " producers (" + taken + ")");
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    void testDropNewest() {
+        EventRingBuffer ringBuffer = fillRing(OverflowPolicy.DropNewest, Level.Trace);
+        assertNull(ringBuffer.claim(Level.Error));
+        System.out.println("Testing EventRingBuffer DropNewest (" + ringBuffer.getDroppedTotal() + ")");
+        assertEquals(1, ringBuffer.getDroppedCount(Level.Error));
+        assertEquals("0", ringBuffer.take(new LogEvent()).message);
+    }
+
+    @Test
+    void testDropOldest() {
+        EventRingBuffer ringBuffer = fillRing(OverflowPolicy.DropOldest, Level.Trace);
+        LogEvent event = ringBuffer.claim(Level.Error);
+        assertNotNull(event);
+        event.populate(false, Level.Error, "4", null);
+        ringBuffer.publish(event);
+        System.out.println("Testing EventRingBuffer DropOldest (" + ringBuffer.getDroppedTotal() + ")");
+        assertEquals(1, ringBuffer.getDroppedCount(Level.Diag));
+        assertEquals(0, ringBuffer.getDroppedCount(Level.Error));
+        assertEquals("1", ringBuffer.take(new LogEvent()).message);
+    }
+
+    @Test
+    void testDropBelowLevel() {
+        EventRingBuffer ringBuffer = fillRing(OverflowPolicy.DropBelowLevel, Level.Warn);
+        assertNull(ringBuffer.claim(Level.Info));
+        System.out.println("Testing EventRingBuffer DropBelowLevel (" + ringBuffer.getDroppedTotal() + ")");
+        assertEquals(1, ringBuffer.getDroppedCount(Level.Info));
+        Thread.currentThread().interrupt(); // so that a Warn does not wait forever
+        assertNull(ringBuffer.claim(Level.Warn));
+        assertTrue(Thread.interrupted());
+        assertEquals(1, ringBuffer.getDroppedCount(Level.Warn));
+    }
+
+    @Test
+    void testCallerRuns() {
+        EventRingBuffer ringBuffer = fillRing(OverflowPolicy.CallerRuns, Level.Trace);
+        LogEvent event = ringBuffer.claim(Level.Info);
+        assertNotNull(event);
+        event.populate(false, Level.Info, "4", null);
+        System.out.println("Testing EventRingBuffer CallerRuns (" + event + ")");
+        assertFalse(ringBuffer.publish(event)); // not queued, so the caller must append it
+        assertEquals(0, ringBuffer.getDroppedTotal());
+        assertEquals(4, ringBuffer.size());
+    }
+
+    @Test
+    void testAwaitPublishedTimeout() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(4);
+        long start = System.nanoTime();
+        ringBuffer.awaitPublished(20_000_000L); // nothing will be published, but it must not sleep forever
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Testing EventRingBuffer.awaitPublished timeout (" + elapsedMillis + "ms)");
+        assertTrue(elapsedMillis < 1000);
+    }
+
+    /**
+     * Create a ring with 4 slots and fill it with Diag events "0" to "3".
+     */
+    private EventRingBuffer fillRing(OverflowPolicy overflowPolicy, Level dropBelowLevel) {
+        EventRingBuffer ringBuffer = new EventRingBuffer(4, overflowPolicy, dropBelowLevel);
+        for(int i = 0; i < 4; i++) {
+            LogEvent event = ringBuffer.claim(Level.Diag);
+            event.populate(false, Level.Diag, "" + i, null);
+            ringBuffer.publish(event);
+        }
+        return ringBuffer;
+    }
+
+    @Test
+    void testEveryWaitStrategyDelivers() throws InterruptedException {
+        final int events = 50;
+        for(WaitStrategy waitStrategy : WaitStrategy.values()) {
+            EventRingBuffer ringBuffer = new EventRingBuffer(4);
+            List<String> taken = new ArrayList<>();
+            Thread consumer = new Thread(() -> {
+                LogEvent spare = new LogEvent();
+                int idleCount = 0;
+                while(taken.size() < events) {
+                    LogEvent event = ringBuffer.take(spare);
+                    if(event == null) {
+                        waitStrategy.idle(ringBuffer, idleCount++);
+                        continue;
+                    }
+                    taken.add(event.message);
+                    spare = event;
+                    idleCount = 0;
+                }
+            });
+            consumer.start();
+            for(int i = 0; i < events; i++) {
+                if(i % 10 == 0) {
+                    Thread.sleep(2); // let the consumer go idle
+                }
+                LogEvent event = ringBuffer.claim(Level.Info);
+                event.populate(false, Level.Info, "" + i, null);
+                ringBuffer.publish(event);
+            }
+            consumer.join(5_000);
+            System.out.println("Testing EventRingBuffer with WaitStrategy." + waitStrategy + " (" + taken.size() + ")");
+            assertFalse(consumer.isAlive());
+            for(int i = 0; i < events; i++) {
+                assertEquals("" + i, taken.get(i));
+            }
+        }
+    }
+}
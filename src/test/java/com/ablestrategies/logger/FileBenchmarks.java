@@ -0,0 +1,192 @@
+package com.ablestrategies.logger;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ablestrategies.logger.BenchmarkHarness.measure;
+import static com.ablestrategies.logger.BenchmarkHarness.report;
+import static com.ablestrategies.logger.BenchmarkHarness.score;
+
+/**
+ * FileBenchmarks - Writing events to logfiles, with LogFileAppender and MappedSegmentAppender. (in the temp directory)
+ * <p/>
+ * The behaviour is covered by LogFileAppenderTest, MappedSegmentAppenderTest, and FileFlusherTest; these only
+ * measure it.
+ */
+class FileBenchmarks {
+
+    /** The logfiles of these benchmarks, all named jlogbench*, deleted after each one. */
+    private static final File logFile = new File(System.getProperty("java.io.tmpdir"), "jlogbench.log");
+
+    /**
+     * LogFileAppender: appending a batch event by event vs. all at once.
+     */
+    static void benchmarkBatchAppend() {
+        final int batchSize = AppenderThread.BATCH_SIZE;
+        final int batches = 1000;
+        System.setProperty("jlogger.logfile.name", logFile.getPath());
+        System.setProperty("jlogger.logfile.kfilesize", "1000000");
+        System.setProperty("jlogger.logfile.backups", "1");
+        LogFileAppender appender = new LogFileAppender(new PropsConfiguration());
+        List<LogEvent> events = createEvents(batchSize);
+        score("LogFileAppender.append() x " + batchSize, "ns/event", blackhole -> {
+            long start = System.nanoTime();
+            for(int b = 0; b < batches; b++) {
+                for(LogEvent event : events) {
+                    appender.append(event);
+                }
+            }
+            return (double)(System.nanoTime() - start) / batches / batchSize;
+        });
+        score("LogFileAppender.appendBatch(" + batchSize + ")", "ns/event", blackhole -> {
+            long start = System.nanoTime();
+            for(int b = 0; b < batches; b++) {
+                appender.appendBatch(events);
+            }
+            return (double)(System.nanoTime() - start) / batches / batchSize;
+        });
+        List<LogEvent> freshEvents = events.subList(0, 16);
+        measure("LogFileAppender.appendBatch(16), newly formatted", blackhole -> {
+            for(int i = 0; i < freshEvents.size(); i++) {
+                freshEvents.get(i).populate(false, Level.Info, "Message number @1i of the batch", null);
+                freshEvents.get(i).setLongArgument(1, i);
+            }
+            appender.appendBatch(freshEvents);
+        });
+        appender.close();
+        deleteLogFiles();
+    }
+
+    /**
+     * LogFileAppender and MappedSegmentAppender: MB/s written vs. the FileWriter that LogFileAppender used to
+     * have, for the same (already formatted) events, some of which are multibyte.
+     */
+    static void benchmarkFileThroughput() {
+        final int batchSize = AppenderThread.BATCH_SIZE;
+        final int batches = 500;
+        System.setProperty("jlogger.logfile.name", logFile.getPath());
+        System.setProperty("jlogger.logfile.kfilesize", "100000");
+        System.setProperty("jlogger.logfile.backups", "1");
+        LogFileAppender appender = new LogFileAppender(new PropsConfiguration());
+        System.setProperty("jlogger.logfile.name", logFile.getPath().replace(".log", "mapped.log"));
+        MappedSegmentAppender mappedAppender = new MappedSegmentAppender(new PropsConfiguration());
+        TextFormatter textFormatter = new TextFormatter("@t @c [@L]: ");
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < batchSize; i++) {
+            String message = i % 8 == 0 ? "Gr\u00fc\u00dfe number @1i of the batch, \u4e2d\u6587" : "Message number @1i of the batch";
+            events.add(new LogEvent(false, Level.Info, message, new Object[] {i}));
+        }
+        File oldLogFile = new File(logFile.getPath() + ".old");
+        long[] bytes = new long[1]; // the same for each
+        score("FileWriter, event by event", "MB/s", blackhole -> {
+            long start = System.nanoTime();
+            try(Writer writer = new FileWriter(oldLogFile)) {
+                for(int b = 0; b < batches; b++) {
+                    for(LogEvent event : events) {
+                        writer.write(textFormatter.format(event) + System.lineSeparator());
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("  FileWriter failed: " + e.getMessage());
+            }
+            long elapsed = System.nanoTime() - start;
+            bytes[0] = oldLogFile.length();
+            return bytes[0] * 1e3 / elapsed;
+        });
+        score("LogFileAppender.appendBatch(" + batchSize + ")", "MB/s", blackhole -> {
+            long start = System.nanoTime();
+            for(int b = 0; b < batches; b++) {
+                appender.appendBatch(events);
+            }
+            return bytes[0] * 1e3 / (System.nanoTime() - start);
+        });
+        score("MappedSegmentAppender.append()", "MB/s", blackhole -> {
+            long start = System.nanoTime();
+            for(int b = 0; b < batches; b++) {
+                for(LogEvent event : events) {
+                    mappedAppender.append(event);
+                }
+            }
+            return bytes[0] * 1e3 / (System.nanoTime() - start);
+        });
+        appender.close();
+        mappedAppender.close();
+        deleteLogFiles();
+    }
+
+    /**
+     * FlushPolicy: throughput, and the latency of each appendBatch(), for each policy and both file appenders.
+     * Batches are small, as when the service is not busy, and one in 100 has an Error event.
+     */
+    static void benchmarkFlushPolicies() {
+        final int batchSize = 16;
+        final int batches = 1000;
+        System.setProperty("jlogger.logfile.kfilesize", "100000");
+        System.setProperty("jlogger.logfile.backups", "1");
+        System.setProperty("jlogger.logfile.flush.millis", "10");
+        System.setProperty("jlogger.logfile.flush.kbytes", "256");
+        List<LogEvent> events = createEvents(batchSize);
+        List<LogEvent> errorEvents = new ArrayList<>(events);
+        errorEvents.set(batchSize - 1, new LogEvent(false, Level.Error, "Error in the batch", null));
+        for(String appenderName : new String[] {"LogFileAppender", "MappedSegmentAppender"}) {
+            for(FlushPolicy policy : FlushPolicy.values()) {
+                System.setProperty("jlogger.logfile.flush", policy.name());
+                System.setProperty("jlogger.logfile.name", logFile.getPath().replace(".log", policy + ".log"));
+                IAppender appender = appenderName.equals("LogFileAppender")
+                        ? new LogFileAppender(new PropsConfiguration())
+                        : new MappedSegmentAppender(new PropsConfiguration());
+                long[] latencies = new long[batches]; // of the last iteration
+                score(appenderName + ", " + policy, "Kevents/s", blackhole -> {
+                    long start = System.nanoTime();
+                    for(int b = 0; b < batches; b++) {
+                        long batchStart = System.nanoTime();
+                        appender.appendBatch(b % 100 == 99 ? errorEvents : events);
+                        latencies[b] = System.nanoTime() - batchStart;
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    return (double)batches * batchSize * 1e6 / elapsed;
+                });
+                appender.close();
+                deleteLogFiles();
+                Arrays.sort(latencies);
+                report("  appendBatch() latency", String.format("p50 %8.1f us  p99 %8.1f us  max %8.1f us",
+                        latencies[batches / 2] / 1e3, latencies[batches * 99 / 100] / 1e3, latencies[batches - 1] / 1e3));
+            }
+        }
+    }
+
+    /**
+     * Create a batch of events, each with one boxed argument.
+     * @param batchSize Number of events.
+     * @return The events.
+     */
+    private static List<LogEvent> createEvents(int batchSize) {
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < batchSize; i++) {
+            events.add(new LogEvent(false, Level.Info, "Message number @1i of the batch", new Object[] {i}));
+        }
+        return events;
+    }
+
+    /** Delete the logfiles of these benchmarks. */
+    private static void deleteLogFiles() {
+        for(File file : listLogFiles()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * List the logfiles of these benchmarks.
+     * @return The files, possibly none.
+     */
+    private static File[] listLogFiles() {
+        File[] files = logFile.getAbsoluteFile().getParentFile().listFiles((dir, name) -> name.startsWith("jlogbench"));
+        return files == null ? new File[0] : files;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileFlusherTest {
+
+    private final Map<String, String> settings = new HashMap<>();
+    private final AtomicInteger writes = new AtomicInteger();
+    private final AtomicInteger forces = new AtomicInteger();
+
+    private final IConfiguration configuration = new MapConfiguration(settings);
+
+    /**
+     * Create a flusher that counts its writes and forces.
+     * @param policy Name of the FlushPolicy.
+     * @return The new flusher.
+     */
+    private FileFlusher createFlusher(String policy) {
+        settings.put("jlogger.logfile.flush", policy);
+        return new FileFlusher(configuration, this, writes::incrementAndGet, forces::incrementAndGet);
+    }
+
+    @Test
+    void testPerBatch() {
+        FileFlusher flusher = createFlusher("nonsense");
+        System.out.println("Testing FileFlusher PerBatch (" + flusher.getPolicy() + ")");
+        assertEquals(FlushPolicy.PerBatch, flusher.getPolicy());
+        synchronized (this) {
+            flusher.appended(100, true);
+            flusher.appended(100, false);
+            flusher.closing();
+        }
+        flusher.close();
+        assertEquals(3, writes.get());
+        assertEquals(0, forces.get());
+    }
+
+    @Test
+    void testGroupCommitAndForceOnError() {
+        settings.put("jlogger.logfile.flush.kbytes", "1");
+        FileFlusher flusher = createFlusher("groupcommit");
+        System.out.println("Testing FileFlusher GroupCommit and ForceOnError");
+        synchronized (this) {
+            flusher.appended(600, false);
+            assertEquals(0, forces.get());
+            flusher.appended(600, false); // over 1K
+            assertEquals(1, forces.get());
+        }
+        flusher.close();
+        flusher = createFlusher("ForceOnError");
+        synchronized (this) {
+            flusher.appended(10_000, false);
+            assertEquals(1, forces.get());
+            flusher.appended(10, true);
+            assertEquals(2, forces.get());
+            flusher.closing(); // nothing more to force
+            assertEquals(2, forces.get());
+        }
+        flusher.close();
+        assertEquals(5, writes.get());
+    }
+
+    @Test
+    void testIntervalWritesTailOnTimer() throws InterruptedException {
+        settings.put("jlogger.logfile.flush.millis", "50");
+        FileFlusher flusher = createFlusher("Interval");
+        synchronized (this) {
+            flusher.appended(100, false); // too soon after the last write, i.e. the ctor
+        }
+        assertEquals(0, writes.get());
+        long deadline = System.currentTimeMillis() + 2000;
+        while(writes.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        System.out.println("Testing FileFlusher Interval timer (" + writes.get() + ")");
+        flusher.close();
+        assertEquals(1, writes.get());
+        assertEquals(0, forces.get());
+    }
+
+}
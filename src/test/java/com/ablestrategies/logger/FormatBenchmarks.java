@@ -0,0 +1,154 @@
+package com.ablestrategies.logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.ablestrategies.logger.BenchmarkHarness.measure;
+
+/**
+ * FormatBenchmarks - Populating events and formatting them: arguments, templates, timestamps, and object dumps.
+ * <p/>
+ * The behaviour is covered by LogEventTest, TextFormatterTest, LogEventStringGetterTest, ClockTest, and
+ * ObjectDumperTest; these only measure it.
+ */
+class FormatBenchmarks {
+
+    /** A typical DTO, for the dump benchmark. */
+    @SuppressWarnings("unused")
+    private static class Address {
+        private final String street = "1 Main St";
+        private final String city = "Springfield";
+        private final int zip = 12345;
+    }
+
+    /** A typical DTO, with nested DTOs, a list, a map, and an array. */
+    @SuppressWarnings("unused")
+    private static class Order {
+        private final long orderId = 4711;
+        private final String customer = "Jane Doe";
+        private final double total = 99.95;
+        private final boolean shipped = false;
+        private final Address shipTo = new Address();
+        private final Address billTo = new Address();
+        private final List<String> items = List.of("Widget", "Gadget", "Gizmo");
+        private final Map<String, Integer> quantities = Map.of("Widget", 1, "Gadget", 2);
+        private final int[] discounts = {5, 10};
+    }
+
+    /**
+     * Primitive arguments: boxed varargs vs. the unboxed (logPrimitive) path, populating a re-used event.
+     */
+    static void benchmarkPrimitiveArguments() {
+        LogEvent event = new LogEvent();
+        long[] counter = new long[1];
+        measure("LogEvent, boxed varargs (long, double)", blackhole -> {
+            long count = ++counter[0];
+            event.populate(false, Level.Info, "Count @1i, latency @2f", new Object[] {count, count * 0.5});
+            blackhole.consume(event.arguments.length);
+        });
+        measure("LogEvent, primitive args (long, double)", blackhole -> {
+            long count = ++counter[0];
+            event.populate(false, Level.Info, "Count @1i, latency @2f", null);
+            event.setLongArgument(1, count);
+            event.setDoubleArgument(2, count * 0.5);
+            blackhole.consume(event.primitiveCount);
+        });
+    }
+
+    /**
+     * Message templates: the old character-by-character parser (LegacyTextFormatter) vs. the compiled, cached templates.
+     */
+    static void benchmarkTemplates() {
+        final String prefix = "[ORDERS] "; // no event symbols, which the legacy parser got wrong
+        final String message = "Processed {} records for {} in @3i ms";
+        final Object[] args = new Object[] {"12345", "customer", 17};
+        LogEvent event = new LogEvent();
+        TextFormatter textFormatter = new TextFormatter(prefix);
+        LegacyTextFormatter legacyFormatter = new LegacyTextFormatter(prefix);
+        measure("Legacy parser, re-parse every event", blackhole -> {
+            event.populate(false, Level.Info, message, args);
+            blackhole.consume(legacyFormatter.format(event).length());
+        });
+        measure("TextFormatter.format, compiled templates", blackhole -> {
+            event.populate(false, Level.Info, message, args);
+            blackhole.consume(textFormatter.format(event).length());
+        });
+        TextFormatter sameFormatter = new TextFormatter(prefix);
+        measure("TextFormatter.format, then again by another appender", blackhole -> {
+            event.populate(false, Level.Info, message, args);
+            blackhole.consume(textFormatter.format(event).length());
+            blackhole.consume(sameFormatter.format(event).length());
+        });
+    }
+
+    /**
+     * Timestamps: LocalDateTime.now() vs. the clocks, then building a formatter for every event vs.
+     * the shared, per-second rendering.
+     */
+    static void benchmarkTimestamps() {
+        IClock systemClock = new SystemClock();
+        CoarseClock coarseClock = new CoarseClock(CoarseClock.TICK_MILLIS);
+        measure("LocalDateTime.now()", blackhole -> blackhole.consume(LocalDateTime.now().getNano()));
+        measure("SystemClock", blackhole -> blackhole.consume(systemClock.epochNanos()));
+        measure("CoarseClock", blackhole -> blackhole.consume(coarseClock.epochNanos()));
+        coarseClock.close();
+        LogEvent event = new LogEvent();
+        measure("@t @d @U with a new DateTimeFormatter each", blackhole -> {
+            LocalDateTime timestamp = LocalDateTime.now();
+            blackhole.consume(timestamp.format(DateTimeFormatter.ofLocalizedTime(FormatStyle.MEDIUM)
+                    .withLocale(Locale.US)).replaceAll("[\\u202F]", "").length());
+            blackhole.consume(timestamp.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)
+                    .withLocale(Locale.US)).length());
+            blackhole.consume(timestamp.atOffset(ZoneOffset.UTC)
+                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")).length());
+        });
+        measure("@t @d @U with LogEventStringGetter", blackhole -> {
+            event.populate(false, Level.Info, "", null);
+            LogEventStringGetter getter = new LogEventStringGetter(event);
+            blackhole.consume(getter.getTimestampLocalTimeAsString().length());
+            blackhole.consume(getter.getTimestampLocalDateAsString().length());
+            blackhole.consume(getter.getTimestampUtcDateTimeAsString().length());
+        });
+    }
+
+    /**
+     * ObjectDumper: an @O (deep) dump of a DTO graph, repeated, as in a hot error path.
+     */
+    static void benchmarkObjectDump() {
+        Order order = new Order();
+        ObjectDumper deepDumper = new ObjectDumper(3, 100, false);
+        measure("ObjectDumper.dump, DTO graph", blackhole -> blackhole.consume(deepDumper.dump(order, "order").length()));
+        Map<Integer, Order> orders = new HashMap<>();
+        for(int i = 0; i < 100; i++) {
+            orders.put(i, new Order());
+        }
+        ObjectDumper budgetDumper = new ObjectDumper(3, 100, false, 4096);
+        StringBuilder buffer = new StringBuilder();
+        measure("ObjectDumper.dump, 100 DTO map, unlimited", blackhole ->
+                blackhole.consume(deepDumper.dump(orders, "orders").length()));
+        measure("ObjectDumper.dump, 100 DTO map, 4K budget, to buffer", blackhole -> {
+            buffer.setLength(0);
+            budgetDumper.dump(orders, "orders", buffer);
+            blackhole.consume(buffer.length());
+        });
+        List<List<Integer>> bigLists = new ArrayList<>();
+        for(int i = 0; i < 50; i++) {
+            List<Integer> bigList = new ArrayList<>();
+            for(int j = 0; j < 10_000; j++) {
+                bigList.add(j);
+            }
+            bigLists.add(bigList);
+        }
+        ObjectDumper shallowDumper = new ObjectDumper(1, 100, false);
+        measure("ObjectDumper.dump, 50 lists of 10K (visited by identity)", blackhole ->
+                blackhole.consume(shallowDumper.dump(bigLists, "bigLists").length()));
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormattingStageTest {
+
+    /**
+     * An appender that formats in prepare(), noting which threads did so, and remembers what it appends.
+     */
+    private static class RecordingAppender implements IAppender {
+
+        final TextFormatter textFormatter = new TextFormatter("[@L] ");
+        final Set<String> preparingThreads = ConcurrentHashMap.newKeySet();
+        final List<String> messages = new ArrayList<>();
+
+        public void prepare(LogEvent logEvent) {
+            preparingThreads.add(Thread.currentThread().getName());
+            textFormatter.format(logEvent);
+        }
+
+        public void append(LogEvent logEvent) {
+            messages.add(textFormatter.format(logEvent));
+        }
+
+        public boolean isCallerInfoNeeded() {
+            return false;
+        }
+
+        public void notifyShutdown() {
+
+        }
+
+        public void close() {
+
+        }
+    }
+
+    @Test
+    void testPrepareInParallel() {
+        RecordingAppender recorder = new RecordingAppender();
+        FormattingStage formattingStage = new FormattingStage(3);
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            events.add(new LogEvent(false, Level.Info, "Event @1i @2O", new Object[] {i, List.of(i, "x")}));
+        }
+        formattingStage.prepare(events, Collections.singletonList(recorder));
+        formattingStage.close();
+        String firstMessage = events.get(0).getFormattersCache(LogManager.registerFormatter(
+                TextFormatter.class.getName() + ":[@L] :dontCare"));
+        System.out.println("Testing FormattingStage.prepare (" + recorder.preparingThreads + ")");
+        assertTrue(recorder.preparingThreads.size() > 1);
+        assertTrue(recorder.preparingThreads.contains(Thread.currentThread().getName()));
+        assertNotNull(firstMessage);
+        recorder.appendBatch(events);
+        assertSame(firstMessage, recorder.messages.get(0));
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(recorder.messages.get(i).startsWith("[Info] Event " + i + " List12 vararg[2]"));
+        }
+    }
+
+    @Test
+    void testSmallBatchNotPrepared() {
+        RecordingAppender recorder = new RecordingAppender();
+        FormattingStage formattingStage = new FormattingStage(2);
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < FormattingStage.MIN_PARALLEL_BATCH - 1; i++) {
+            events.add(new LogEvent(false, Level.Info, "Event @1i", new Object[] {i}));
+        }
+        formattingStage.prepare(events, Collections.singletonList(recorder));
+        formattingStage.close();
+        System.out.println("Testing FormattingStage.prepare small batch (" + recorder.preparingThreads + ")");
+        assertTrue(recorder.preparingThreads.isEmpty());
+    }
+
+    @Test
+    void testUnevenSharesWithManyWorkers() {
+        FormattingStage formattingStage = new FormattingStage(32);
+        Map<String, Integer> prepareCounts = new ConcurrentHashMap<>();
+        RecordingAppender counter = new RecordingAppender() {
+            public void prepare(LogEvent logEvent) {
+                prepareCounts.merge(logEvent.message, 1, Integer::sum);
+            }
+        };
+        for(int eventCount : new int[] {481, 497, 511, 33, 100}) {
+            prepareCounts.clear();
+            List<LogEvent> events = new ArrayList<>();
+            for(int i = 0; i < eventCount; i++) {
+                events.add(new LogEvent(false, Level.Info, "Event " + i, null));
+            }
+            formattingStage.prepare(events, Collections.singletonList(counter));
+            assertEquals(eventCount, prepareCounts.size(), eventCount + " events");
+            for(int count : prepareCounts.values()) {
+                assertEquals(1, count);
+            }
+        }
+        System.out.println("Testing FormattingStage.prepare with uneven shares (32 workers)");
+        formattingStage.close();
+        prepareCounts.clear();
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            events.add(new LogEvent(false, Level.Info, "Event " + i, null));
+        }
+        formattingStage.prepare(events, Collections.singletonList(counter)); // workers gone, done here instead
+        assertEquals(100, prepareCounts.size());
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.ablestrategies.logger;
+
+/**
+ * LegacyTextFormatter - The character-by-character parser that TextFormatter used before it compiled
+ * templates, kept (bugs and all) only so that LoggerBenchmark can compare the two.
+ * <p/>
+ * It re-parses prefix + message for every event, as TextFormatter.format() used to, minus the
+ * formatters cache. Do not use it for anything else.
+ */
+class LegacyTextFormatter {
+
+    /** Default prefix for all messages. */
+    private final String prefix;
+
+    /** For counting {} symbols in a message. */
+    private int bracesArgNum;
+
+    /**
+     * Ctor.
+     * @param prefix The message prefix.
+     */
+    LegacyTextFormatter(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Perform the conversion - format a LogEvent as a String.
+     * @param logEvent To be formatted as a string message.
+     * @return The resultant textual message.
+     */
+    String format(LogEvent logEvent) {
+        LogEventStringGetter getter = new LogEventStringGetter(logEvent);
+        String message = prefix + getter.getMessage();
+        StringBuilder buffer = new StringBuilder();
+        int messageLgt = message.length();
+        int messagePos = 0;
+        bracesArgNum = 1;
+        while(messagePos < messageLgt) {
+            if(message.charAt(messagePos) == '{') {
+                messagePos = substituteBraces(message, messagePos, buffer, getter);
+            } else if (message.charAt(messagePos) == '@') {
+                messagePos = substituteAtSign(message, messagePos, buffer, getter);
+            } else {
+                buffer.append(message.charAt(messagePos));
+            }
+            messagePos++;
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Handle an {} replacement symbol.
+     * @param message Source of replacement symbol
+     * @param messagePos Location of "{"} in message
+     * @param buffer To update/append to.
+     * @param getter Source of substitution data and arguments.
+     * @return updated messagePos.
+     * @apiNote Also modifies object state - member variable bracesArgNum.
+     */
+    private int substituteBraces(String message, int messagePos, StringBuilder buffer, LogEventStringGetter getter) {
+        char ch = message.charAt(++messagePos);
+        if(ch == '{') {
+            buffer.append("{");
+            return messagePos;
+        }
+        if(Character.isDigit(ch)) {
+            bracesArgNum = ch - '0';
+            messagePos++;
+        }
+        if(message.charAt(messagePos) != '}') {
+            Support.handleLoggerError(false, "TextFormatter - Bad replacement symbol (" + message + ")", null);
+            return messagePos;
+        }
+        buffer.append(getter.getAnyTypeArgumentAsString(bracesArgNum));
+        ++bracesArgNum;
+        return messagePos;
+    }
+
+    /**
+     * Handle an @-sign replacement symbol.
+     * @param message Source of replacement symbol
+     * @param messagePos Location of @-sign in message
+     * @param buffer To update/append to.
+     * @param getter Source of substitution data and arguments.
+     * @return updated messagePos.
+     */
+    private int substituteAtSign(String message, int messagePos, StringBuilder buffer, LogEventStringGetter getter) {
+        int argNum = 0;
+        char ch = message.charAt(++messagePos);
+        if (Character.isDigit(ch)) {
+            argNum = ch - '0';
+        }
+        if(argNum > 0) {
+            buffer.append(expandMessageArg(getter, message.charAt(++messagePos), argNum));
+        } else {
+            buffer.append(expandEventValue(getter, message.charAt(++messagePos)));
+        }
+        return messagePos;
+    }
+
+    /**
+     * Perform symbol replacement from varargs argument list.
+     * @param getter access to the LogEvent.
+     * @param symbol symbol from message
+     * @param argNum one-based argument number
+     * @return replacement string
+     */
+    private String expandMessageArg(LogEventStringGetter getter, char symbol, int argNum) {
+        return switch (symbol) {
+            case 's' -> getter.getStringArgumentAsString(argNum);
+            case 'b' -> getter.getBooleanArgumentAsString(argNum).substring(0, 1).toUpperCase();
+            case 'B' -> getter.getBooleanArgumentAsString(argNum);
+            case 'i' -> getter.getLongArgumentAsString(argNum);
+            case 'h' -> getter.getHexArgumentAsString(argNum);
+            case 'f' -> getter.getDoubleArgumentAsString(argNum);
+            case 'd' -> getter.getLocalDateTimeArgumentAsString(argNum);
+            case 'D' -> getter.getUtcDateTimeArgumentAsString(argNum);
+            case 'e' -> getter.getExceptionMessageArgumentAsString(argNum);
+            case 'E' -> getter.getExceptionStackDumpArgumentAsString(argNum);
+            case 't' -> getter.getToStringArgumentAsString(argNum);
+            case 'o' -> getter.getObjectArgumentAsString(argNum, 1);
+            case 'O' -> getter.getObjectArgumentAsString(argNum, 3);
+            default -> "###";
+        };
+    }
+
+    /**
+     * Perform symbol replacement on Event values.
+     * @param getter access to the LogEvent.
+     * @param symbol symbol from message
+     * @return replacement string
+     */
+    private String expandEventValue(LogEventStringGetter getter, char symbol) {
+        return switch (symbol) {
+            case 'l' -> Long.toString(getter.getLevel().getValue());
+            case 'L' -> getter.getLevel().name();
+            case 'd' -> getter.getTimestampLocalDateAsString();
+            case 'D' -> getter.getTimestampUtcDateAsString();
+            case 't' -> getter.getTimestampLocalTimeAsString();
+            case 'T' -> getter.getTimestampUtcTimeAsString();
+            case 'u' -> getter.getTimestampLocalDateTimeAsString();
+            case 'U' -> getter.getTimestampUtcDateTimeAsString();
+            case 'n' -> getter.getTimestampNanosAsString();
+            case 'e' -> getter.getThrowableMessage();
+            case 'E' -> getter.getThrowableStackDump();
+            case 'm' -> Support.assembleCallerPath(getter, false, false, true);
+            case 'c' -> Support.assembleCallerPath(getter, false, true, true);
+            case 'p' -> Support.assembleCallerPath(getter, true, true, true);
+            case 'P' -> Support.assembleCallerPath(getter, true, true, false);
+            case 'h' -> getter.getThreadName();
+            case '@' -> "@";
+            default -> "###";
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelTrieTest {
+
+    @Test
+    void testPartialSegments() {
+        LevelTrie levelTrie = new LevelTrie();
+        Logger xyz = addLogger(levelTrie, "com.xyz.DBO");
+        Logger xyzabc = addLogger(levelTrie, "com.xyzabc.Main");
+        Logger other = addLogger(levelTrie, "org.Other");
+        levelTrie.setLevel(Level.Diag, "com.xyz");
+        System.out.println("Testing LevelTrie partial segments (" + xyz.getLevel() + ", " + other.getLevel() + ")");
+        assertEquals(Level.Diag, xyz.getLevel());
+        assertEquals(Level.Diag, xyzabc.getLevel()); // as per startsWith()
+        assertEquals(Level.Warn, other.getLevel());
+        levelTrie.setLevel(Level.Error, "com.xyz.");
+        assertEquals(Level.Error, xyz.getLevel());
+        assertEquals(Level.Diag, xyzabc.getLevel());
+        assertEquals(Level.Error, addLogger(levelTrie, "com.xyz.New").getLevel());
+        assertEquals(Level.Diag, addLogger(levelTrie, "com.xyzz").getLevel());
+        assertEquals(Level.Warn, addLogger(levelTrie, "com").getLevel());
+    }
+
+    @Test
+    void testCompaction() {
+        LevelTrie levelTrie = new LevelTrie();
+        for(int i = 0; i < 1000; i++) {
+            levelTrie.setLevel(Level.Diag, "com.xyz.Class" + (i % 10));
+            levelTrie.setLevel(i % 2 == 0 ? Level.Info : Level.Warn, "com.xyz");
+        }
+        System.out.println("Testing LevelTrie compaction (" + levelTrie.getSettingCount() + ")");
+        assertEquals(1, levelTrie.getSettingCount());
+        levelTrie.setLevel(Level.Error, "");
+        assertEquals(1, levelTrie.getSettingCount());
+        assertEquals(Level.Error, addLogger(levelTrie, "com.xyz.Class1").getLevel());
+    }
+
+    @Test
+    void testSameAsHistoryReplay() {
+        final String[] segments = {"com", "co", "xyz", "x", "Main", "DBO", ""};
+        Random random = new Random(42);
+        LevelTrie levelTrie = new LevelTrie();
+        List<Logger> loggers = new ArrayList<>();
+        Set<String> loggerNames = new HashSet<>();
+        List<KeyValuePair<String, Level>> history = new ArrayList<>();
+        for(int step = 0; step < 5000; step++) {
+            String name = randomName(random, segments);
+            if(random.nextBoolean()) {
+                if(random.nextInt(4) == 0) {
+                    name = name.substring(0, random.nextInt(name.length() + 1)); // part-way into a segment
+                }
+                Level level = Level.values()[random.nextInt(Level.values().length)];
+                levelTrie.setLevel(level, name);
+                history.add(new KeyValuePair<>(name, level));
+            } else if(loggerNames.add(name)) { // as LogManager creates only one Logger per name
+                loggers.add(addLogger(levelTrie, name));
+            }
+        }
+        for(Logger logger : loggers) {
+            assertEquals(replayHistory(history, logger.getPackageClassName()), logger.getLevel());
+        }
+        System.out.println("Testing LevelTrie vs. history (" + loggers.size() + " loggers, " +
+                history.size() + " setLevels, " + levelTrie.getSettingCount() + " kept)");
+        assertTrue(levelTrie.getSettingCount() < history.size());
+    }
+
+    /**
+     * Create a Logger (default Level Warn) and add it to the trie.
+     */
+    private Logger addLogger(LevelTrie levelTrie, String name) {
+        Logger logger = new Logger(null, name, Level.Warn);
+        levelTrie.addLogger(logger);
+        return logger;
+    }
+
+    /**
+     * Make up a Logger name with 1 to 4 segments.
+     */
+    private String randomName(Random random, String[] segments) {
+        StringBuilder name = new StringBuilder(segments[random.nextInt(segments.length)]);
+        for(int count = random.nextInt(4); count > 0; count--) {
+            name.append(".").append(segments[random.nextInt(segments.length)]);
+        }
+        return name.toString();
+    }
+
+    /**
+     * The way that LogManager used to resolve a Level: replay every setLevel() in order.
+     */
+    private Level replayHistory(List<KeyValuePair<String, Level>> history, String name) {
+        Level level = Level.Warn;
+        for(KeyValuePair<String, Level> entry : history) {
+            if(name.startsWith(entry.getKey())) {
+                level = entry.getValue();
+            }
+        }
+        return level;
+    }
+
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.TextStyle;
 import java.util.Locale;
@@ -123,6 +124,24 @@ class LogEventStringGetterTest {
         assertTrue(str.contains("" + utc.getMinute()));
     }
 
+    @Test
+    void testTimestampCacheAcrossSeconds() {
+        LocalDateTime first = LocalDateTime.of(2025, 9, 23, 13, 26, 44, 100);
+        LocalDateTime second = first.plusSeconds(1);
+        LogEvent firstEvent = new LogEvent(false, Level.Diag, "", null);
+        LogEvent secondEvent = new LogEvent(false, Level.Diag, "", null);
+        firstEvent.timestampNanos = first.atZone(ZoneId.systemDefault()).toEpochSecond() * 1_000_000_000L + 100;
+        secondEvent.timestampNanos = second.atZone(ZoneId.systemDefault()).toEpochSecond() * 1_000_000_000L + 100;
+        LogEventStringGetter firstGetter = new LogEventStringGetter(firstEvent);
+        LogEventStringGetter secondGetter = new LogEventStringGetter(secondEvent);
+        System.out.println("Testing LogEventStringGetter timestamp cache (" + secondGetter.getTimestampUtcTimeAsString() + ")");
+        assertEquals("T13:26:45Z", secondGetter.getTimestampUtcTimeAsString());
+        assertEquals("T13:26:44Z", firstGetter.getTimestampUtcTimeAsString());
+        assertEquals("T13:26:45Z", secondGetter.getTimestampUtcTimeAsString());
+        assertEquals("2025-09-23T13:26:44Z", firstGetter.getTimestampUtcDateTimeAsString());
+        assertEquals("Sep 23, 2025", secondGetter.getTimestampLocalDateAsString());
+    }
+
     @Test
     void testGetStringArgumentAsString() {
         String str = getter.getStringArgumentAsString(2);
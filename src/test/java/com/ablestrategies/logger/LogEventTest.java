@@ -56,4 +56,17 @@ class LogEventTest {
         assertEquals("setUp", stackTrace[0].getMethodName());
     }
 
-}
\ No newline at end of file
+    @org.junit.jupiter.api.Test
+    void testCallerCapturedOnlyWhenNeeded() {
+        LogEvent withCaller = new LogEvent(true, Level.Info, "ABC", null);
+        LogEvent withoutCaller = new LogEvent(false, Level.Info, "ABC", null);
+        System.out.println("Testing LogEvent caller capture (" + withCaller.className + "." + withCaller.methodName + ")");
+        assertFalse(withCaller.className.isEmpty());
+        assertFalse(withCaller.methodName.isEmpty());
+        assertEquals("", withoutCaller.className);
+        assertEquals("", withoutCaller.methodName);
+        withCaller.populate(false, Level.Info, "DEF", null); // re-used slot, caller not needed this time
+        assertEquals("", withCaller.className);
+        assertEquals("", withCaller.methodName);
+    }
+}
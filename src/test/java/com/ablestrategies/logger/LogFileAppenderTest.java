@@ -0,0 +1,135 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFileAppenderTest {
+
+    /** Multibyte text, so chars and bytes differ. (e-acute, a CJK char, and an emoji) */
+    private static final String MULTIBYTE = "\u00e9\u4e2d\ud83d\ude00";
+
+    private File directory;
+    private final Map<String, String> settings = new HashMap<>();
+
+    private final IConfiguration configuration = new MapConfiguration(settings);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("jlogtest").toFile();
+        settings.put("jlogger.logfile.name", new File(directory, "jlog.log").getPath());
+        settings.put("jlogger.logfile.prefix", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    void testRolloverIsByteAccurate() throws IOException {
+        settings.put("jlogger.logfile.kfilesize", "1");
+        settings.put("jlogger.logfile.backups", "3");
+        LogFileAppender appender = new LogFileAppender(configuration);
+        for(int i = 0; i < 50; i++) {
+            appender.append(new LogEvent(false, Level.Info, "Event @1i " + MULTIBYTE.repeat(4), new Object[] {i}));
+        }
+        appender.close();
+        System.out.println("Testing LogFileAppender byte-accurate rollover");
+        List<String> lines = new ArrayList<>();
+        for(String filename : new String[] {"jlog000.log", "jlog001.log", "jlog002.log"}) {
+            File file = new File(directory, filename);
+            assertTrue(file.length() <= 1024, filename + " is " + file.length() + " bytes");
+            lines.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        }
+        lines.removeIf(line -> line.startsWith("###LogFile### "));
+        assertEquals(50, lines.size());
+        for(int i = 0; i < 50; i++) {
+            assertEquals("Event " + i + " " + MULTIBYTE.repeat(4), lines.get(i));
+        }
+    }
+
+    @Test
+    void testBatchSpanningBuffers() throws IOException {
+        settings.put("jlogger.logfile.kbuffer", "4"); // four 1K buffers
+        LogFileAppender appender = new LogFileAppender(configuration);
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            events.add(new LogEvent(false, Level.Info, "Event @1i " + MULTIBYTE, new Object[] {i}));
+        }
+        appender.appendBatch(events);
+        appender.close();
+        File file = new File(directory, "jlog000.log");
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        System.out.println("Testing LogFileAppender batch spanning buffers (" + file.length() + " bytes)");
+        assertEquals(201, lines.size());
+        assertTrue(lines.get(0).startsWith("###LogFile### "));
+        for(int i = 0; i < 200; i++) {
+            assertEquals("Event " + i + " " + MULTIBYTE, lines.get(i + 1));
+        }
+    }
+
+    @Test
+    void testBatchMatchesSingleAppends() throws IOException {
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            events.add(new LogEvent(false, Level.Info, "Event @1i " + MULTIBYTE, new Object[] {i}));
+        }
+        LogFileAppender singleAppender = new LogFileAppender(configuration);
+        for(LogEvent event : events) {
+            singleAppender.append(event);
+        }
+        singleAppender.close();
+        settings.put("jlogger.logfile.name", new File(directory, "jbatch.log").getPath());
+        LogFileAppender batchAppender = new LogFileAppender(configuration);
+        batchAppender.appendBatch(events);
+        batchAppender.close();
+        List<String> singleLines = Files.readAllLines(new File(directory, "jlog000.log").toPath(), StandardCharsets.UTF_8);
+        List<String> batchLines = Files.readAllLines(new File(directory, "jbatch000.log").toPath(), StandardCharsets.UTF_8);
+        System.out.println("Testing LogFileAppender batch vs. single appends (" + batchLines.size() + " lines)");
+        singleLines.removeIf(line -> line.startsWith("###LogFile### "));
+        batchLines.removeIf(line -> line.startsWith("###LogFile### "));
+        assertEquals(100, batchLines.size());
+        assertEquals(singleLines, batchLines);
+    }
+
+    @Test
+    void testEveryFlushPolicyWritesEverything() throws IOException {
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < 16; i++) {
+            events.add(new LogEvent(false, i == 15 ? Level.Error : Level.Info, "Event @1i", new Object[] {i}));
+        }
+        for(FlushPolicy policy : FlushPolicy.values()) {
+            settings.put("jlogger.logfile.flush", policy.name());
+            settings.put("jlogger.logfile.name", new File(directory, "j" + policy + ".log").getPath());
+            LogFileAppender appender = new LogFileAppender(configuration);
+            for(int b = 0; b < 10; b++) {
+                appender.appendBatch(events);
+            }
+            appender.close();
+            File file = new File(directory, "j" + policy + "000.log");
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            lines.removeIf(line -> line.startsWith("###LogFile### "));
+            System.out.println("Testing LogFileAppender with FlushPolicy." + policy + " (" + lines.size() + " lines)");
+            assertEquals(160, lines.size());
+            assertEquals("Event 15", lines.get(159));
+        }
+    }
+}
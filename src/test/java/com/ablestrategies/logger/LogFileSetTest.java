@@ -0,0 +1,136 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFileSetTest {
+
+    private File directory;
+    private final Map<String, String> settings = new HashMap<>();
+
+    private final IConfiguration configuration = new MapConfiguration(settings);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("jlogtest").toFile();
+        settings.put("jlogger.logfile.name", new File(directory, "jlog.log").getPath());
+        settings.put("jlogger.logfile.backups", "3");
+    }
+
+    @AfterEach
+    void tearDown() {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Roll over, creating each file, as an appender would.
+     * @param fileSet The set to roll over.
+     * @param count Number of rollovers.
+     * @return The last filename.
+     */
+    private String rollover(LogFileSet fileSet, int count) throws IOException {
+        String filename = null;
+        for(int i = 0; i < count; i++) {
+            filename = fileSet.rollover();
+            new File(filename).createNewFile();
+        }
+        return filename;
+    }
+
+    @Test
+    void testPrunesOldestAndResumes() throws IOException {
+        LogFileSet fileSet = new LogFileSet(configuration);
+        String filename = rollover(fileSet, 6);
+        fileSet.close();
+        System.out.println("Testing LogFileSet rollover and prune (" + new File(filename).getName() + ")");
+        assertEquals(new File(directory, "jlog005.log").getPath(), filename);
+        for(int index = 0; index < 6; index++) {
+            assertEquals(index >= 3, new File(directory, String.format("jlog%03d.log", index)).exists());
+        }
+        String manifest = Files.readString(new File(directory, "jlog.manifest").toPath());
+        assertTrue(manifest.contains("oldest=3\n") && manifest.contains("newest=5\n"));
+        LogFileSet restarted = new LogFileSet(configuration);
+        assertEquals(new File(directory, "jlog006.log").getPath(), restarted.rollover());
+        restarted.close();
+        assertFalse(new File(directory, "jlog003.log").exists());
+    }
+
+    @Test
+    void testScansWithoutManifest() throws IOException {
+        for(int index = 0; index < 5; index++) {
+            new File(directory, String.format("jlog%03d.log", index)).createNewFile();
+        }
+        new File(directory, "jlog.log.bak").createNewFile(); // not one of ours
+        LogFileSet fileSet = new LogFileSet(configuration);
+        String filename = fileSet.rollover();
+        fileSet.close();
+        System.out.println("Testing LogFileSet without manifest (" + new File(filename).getName() + ")");
+        assertEquals(new File(directory, "jlog005.log").getPath(), filename);
+        assertFalse(new File(directory, "jlog002.log").exists());
+        assertTrue(new File(directory, "jlog003.log").exists());
+        assertTrue(new File(directory, "jlog.log.bak").exists());
+    }
+
+    @Test
+    void testCompressesBackups() throws IOException {
+        settings.put("jlogger.logfile.compress", "true");
+        LogFileSet fileSet = new LogFileSet(configuration);
+        String content = "Event text that compresses well\n".repeat(5000);
+        for(int i = 0; i < 3; i++) {
+            Files.writeString(new File(fileSet.rollover()).toPath(), content);
+        }
+        fileSet.close();
+        File compressed = new File(directory, "jlog000.log.gz");
+        System.out.println("Testing LogFileSet compression (" + compressed.length() + " bytes)");
+        assertFalse(new File(directory, "jlog000.log").exists());
+        assertFalse(new File(directory, "jlog001.log").exists());
+        assertTrue(new File(directory, "jlog002.log").exists()); // the newest
+        assertTrue(compressed.length() < content.length() / 10);
+        try(InputStream input = new GZIPInputStream(new FileInputStream(compressed))) {
+            assertEquals(content, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testRetainsByBytesAndAge() throws IOException {
+        settings.put("jlogger.logfile.backups", "100");
+        settings.put("jlogger.logfile.kmaxtotal", "5");
+        LogFileSet fileSet = new LogFileSet(configuration);
+        for(int i = 0; i < 6; i++) {
+            Files.writeString(new File(fileSet.rollover()).toPath(), "x".repeat(2048));
+        }
+        fileSet.close();
+        System.out.println("Testing LogFileSet retention by bytes and age");
+        for(int index = 0; index < 6; index++) {
+            assertEquals(index >= 3, new File(directory, String.format("jlog%03d.log", index)).exists()); // 2 backups fit
+        }
+        settings.put("jlogger.logfile.kmaxtotal", "0");
+        settings.put("jlogger.logfile.maxagehours", "1");
+        new File(directory, "jlog003.log").setLastModified(System.currentTimeMillis() - 7_200_000);
+        LogFileSet restarted = new LogFileSet(configuration);
+        restarted.rollover();
+        restarted.close();
+        assertFalse(new File(directory, "jlog003.log").exists());
+        assertTrue(new File(directory, "jlog004.log").exists());
+    }
+
+}
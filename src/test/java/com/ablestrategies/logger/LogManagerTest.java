@@ -0,0 +1,129 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogManagerTest {
+
+    @Test
+    void testConcurrentGetInstance() throws InterruptedException {
+        final int threads = 16;
+        ConcurrentHashMap<LogManager, Boolean> instances = new ConcurrentHashMap<>();
+        runConcurrently(threads, threadNum -> instances.put(LogManager.getInstance(), true));
+        System.out.println("Testing LogManager.getInstance concurrently (" + instances.size() + ")");
+        assertEquals(1, instances.size());
+    }
+
+    @Test
+    void testConcurrentGetLoggerAndSetLevel() throws InterruptedException {
+        final int threads = 16;
+        final int loggersPerThread = 500;
+        LogManager logManager = LogManager.getInstance();
+        ConcurrentHashMap<String, Logger> firstSeen = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        runConcurrently(threads, threadNum -> {
+            for(int i = 0; i < loggersPerThread; i++) {
+                // every thread asks for the same names, in a different order
+                int loggerNum = (i * 7 + threadNum) % loggersPerThread;
+                String name = "stress." + (loggerNum % 5) + ".Logger" + loggerNum;
+                Logger logger = logManager.getLogger(name);
+                Logger previous = firstSeen.putIfAbsent(name, logger);
+                if(previous != null && previous != logger) {
+                    duplicates.incrementAndGet();
+                }
+                if(threadNum == 0 && i % 50 == 0) {
+                    logManager.setLevel(i % 100 == 0 ? Level.Diag : Level.Error, "stress.3");
+                }
+            }
+        });
+        logManager.setLevel(Level.Info, "stress.4");
+        System.out.println("Testing LogManager.getLogger concurrently (" + firstSeen.size() + " loggers, "
+                + duplicates.get() + " duplicates)");
+        assertEquals(0, duplicates.get());
+        assertEquals(loggersPerThread, firstSeen.size());
+        for(Logger logger : firstSeen.values()) {
+            assertSame(logger, logManager.getLogger(logger.getPackageClassName()));
+            if(logger.getPackageClassName().startsWith("stress.3")) {
+                assertEquals(Level.Error, logger.getLevel()); // the last setLevel for stress.3
+            } else if(logger.getPackageClassName().startsWith("stress.4")) {
+                assertEquals(Level.Info, logger.getLevel());
+            }
+        }
+        Logger newLogger = logManager.getLogger("stress.3.NewLogger");
+        assertEquals(Level.Error, newLogger.getLevel()); // per the setLevel history
+    }
+
+    /**
+     * Body of a thread in runConcurrently.
+     */
+    private interface ThreadBody {
+        void run(int threadNum);
+    }
+
+    @Test
+    void testFormatterSlotsAreReleased() {
+        // more formatters than there are slots, each closed before the next
+        for(int i = 0; i < 3 * LogEvent.FORMATTER_SLOTS; i++) {
+            TextFormatter formatter = new TextFormatter("[RELEASED " + i + "] ");
+            String signature = TextFormatter.class.getName() + ":[RELEASED " + i + "] :dontCare";
+            int slot = LogManager.registerFormatter(signature); // a second user of the same slot
+            assertTrue(slot >= 0, "formatter " + i);
+            LogManager.unregisterFormatter(signature);
+            formatter.close();
+        }
+        // then use up the slots, and release one
+        List<String> signatures = new ArrayList<>();
+        int slot;
+        do {
+            String signature = "LogManagerTest:" + signatures.size() + ":";
+            slot = LogManager.registerFormatter(signature);
+            if(slot >= 0) {
+                signatures.add(signature);
+            }
+        } while(slot >= 0 && signatures.size() <= LogEvent.FORMATTER_SLOTS);
+        System.out.println("Testing LogManager formatter slots (" + signatures.size() + " free)");
+        assertEquals(-1, slot);
+        assertEquals(-1, LogManager.registerFormatter("LogManagerTest:one too many:"));
+        LogManager.unregisterFormatter(signatures.remove(0));
+        assertTrue(LogManager.registerFormatter("LogManagerTest:one too many:") >= 0);
+        LogManager.unregisterFormatter("LogManagerTest:one too many:");
+        for(String signature : signatures) {
+            LogManager.unregisterFormatter(signature);
+        }
+    }
+
+    /**
+     * Start threads at (about) the same moment, and wait for them all to finish.
+     * @param threads Number of threads.
+     * @param body What each thread does.
+     */
+    private void runConcurrently(int threads, ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threadList = new ArrayList<>();
+        for(int t = 0; t < threads; t++) {
+            final int threadNum = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                body.run(threadNum);
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for(Thread thread : threadList) {
+            thread.join();
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.ablestrategies.logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LoggerBenchmark - Rough micro-benchmarks for the hot paths of the Logger.
+ * <p/>
+ * This is not a unit test, and asserts nothing: the behaviour of each hot path is covered by the unit tests.
+ * Run it after "mvn test-compile", optionally naming the benchmarks to run:
+ * <code>
+ *   java -cp target/classes:target/test-classes com.ablestrategies.logger.LoggerBenchmark [name...]
+ * </code>
+ * The benchmarks themselves are in CallerBenchmarks, QueueBenchmarks, FormatBenchmarks, and FileBenchmarks, and
+ * run in BenchmarkHarness, which warms each one up, then times it, and prints its mean cost (or score).
+ */
+public class LoggerBenchmark {
+
+    /** All benchmarks, by name, in the order they will be run. */
+    private static final Map<String, Runnable> BENCHMARKS = new LinkedHashMap<>();
+
+    static {
+        BENCHMARKS.put("caller", CallerBenchmarks::benchmarkCallerCapture);
+        BENCHMARKS.put("queue", QueueBenchmarks::benchmarkQueue);
+        BENCHMARKS.put("wait", QueueBenchmarks::benchmarkWaitStrategies);
+        BENCHMARKS.put("batch", FileBenchmarks::benchmarkBatchAppend);
+        BENCHMARKS.put("throughput", FileBenchmarks::benchmarkFileThroughput);
+        BENCHMARKS.put("flush", FileBenchmarks::benchmarkFlushPolicies);
+        BENCHMARKS.put("primitive", FormatBenchmarks::benchmarkPrimitiveArguments);
+        BENCHMARKS.put("templates", FormatBenchmarks::benchmarkTemplates);
+        BENCHMARKS.put("timestamps", FormatBenchmarks::benchmarkTimestamps);
+        BENCHMARKS.put("dump", FormatBenchmarks::benchmarkObjectDump);
+    }
+
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            args = BENCHMARKS.keySet().toArray(new String[0]);
+        }
+        for(String name : args) {
+            Runnable benchmark = BENCHMARKS.get(name);
+            if(benchmark == null) {
+                System.out.println("Unknown benchmark: " + name + " (try " + BENCHMARKS.keySet() + ")");
+                continue;
+            }
+            System.out.println("### " + name);
+            benchmark.run();
+        }
+        System.out.println("(blackhole " + BenchmarkHarness.getBlackhole().getSink() + ")");
+    }
+
+}
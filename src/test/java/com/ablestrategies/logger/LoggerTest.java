@@ -0,0 +1,131 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggerTest {
+
+    /**
+     * A Logger that formats each varargs message, rather than enqueuing it.
+     */
+    private static class RecordingLogger extends Logger {
+
+        final List<String> messages = new ArrayList<>();
+
+        RecordingLogger() {
+            super(LogManager.getInstance(), "LoggerTest.recording", Level.Trace);
+        }
+
+        @Override
+        public void log(Level level, String message, Object... args) {
+            messages.add(new TextFormatter("").format(new LogEvent(false, level, message, args)));
+        }
+    }
+
+    /**
+     * Format a message with one primitive argument, as logPrimitive() would store it.
+     */
+    private String formatPrimitive(String message, char arg1) {
+        LogEvent event = new LogEvent(false, Level.Info, message, null);
+        event.setCharArgument(1, arg1);
+        return new TextFormatter("").format(event);
+    }
+
+    /**
+     * Format a message with one primitive argument, as logPrimitive() would store it.
+     */
+    private String formatPrimitive(String message, float arg1) {
+        LogEvent event = new LogEvent(false, Level.Info, message, null);
+        event.setFloatArgument(1, arg1);
+        return new TextFormatter("").format(event);
+    }
+
+    @Test
+    void testCharArgumentIsNotANumber() {
+        RecordingLogger logger = new RecordingLogger();
+        logger.INFO("@1t {}", 'c');
+        System.out.println("Testing Logger char argument (" + logger.messages + ")");
+        assertEquals(List.of("c c"), logger.messages);
+        assertEquals("c c", formatPrimitive("@1t {}", 'c'));
+    }
+
+    @Test
+    void testFloatArgumentIsNotWidened() {
+        RecordingLogger logger = new RecordingLogger();
+        logger.INFO("@1f {}", 0.1f);
+        System.out.println("Testing Logger float argument (" + logger.messages + ")");
+        assertEquals(List.of("0.1 0.1"), logger.messages);
+        assertEquals("0.1 0.1", formatPrimitive("@1f {}", 0.1f));
+    }
+
+    @Test
+    void testNullBoxedArgumentIsNotUnboxed() {
+        RecordingLogger logger = new RecordingLogger();
+        Integer count = null;
+        Long total = null;
+        Double ratio = null;
+        logger.INFO("@1i", count);
+        logger.WARN("@1i @2i", total, 5L);
+        logger.ERROR("@1f", ratio);
+        System.out.println("Testing Logger null boxed arguments (" + logger.messages + ")");
+        assertEquals(List.of("(null)", "(null) 5", "(null)"), logger.messages);
+    }
+
+    @Test
+    void testBareNullArgument() {
+        RecordingLogger logger = new RecordingLogger();
+        logger.DIAG("value {}", null); // binds to the Supplier overload
+        logger.log(Level.Info, "value {}", null);
+        logger.INFO("{} {}", () -> "A", null);
+        System.out.println("Testing Logger bare null argument (" + logger.messages + ")");
+        assertEquals(List.of("value (null)", "value (null)", "A (null)"), logger.messages);
+    }
+
+    @Test
+    void testSuppliersNotCalledIfFiltered() {
+        Logger logger = new Logger(LogManager.getInstance(), "LoggerTest.filtered", Level.Warn);
+        AtomicReference<String> calledBy = new AtomicReference<>();
+        logger.DIAG(() -> calledBy.getAndSet("message"));
+        logger.DIAG("Snapshot @1t", () -> calledBy.getAndSet("argument"));
+        logger.DIAG("Snapshot @1t", Logger.defer(() -> calledBy.getAndSet("deferred")));
+        System.out.println("Testing Logger suppliers filtered (" + calledBy.get() + ")");
+        assertNull(calledBy.get());
+    }
+
+    @Test
+    void testSuppliersCalledOnTheRightThread() throws InterruptedException {
+        Logger logger = new Logger(LogManager.getInstance(), "LoggerTest.suppliers", Level.Diag);
+        AtomicReference<String> argumentThread = new AtomicReference<>();
+        AtomicReference<String> deferredThread = new AtomicReference<>();
+        CountDownLatch deferredCalled = new CountDownLatch(1);
+        logger.DIAG("Snapshot @1t", () -> argumentThread.getAndSet(Thread.currentThread().getName()));
+        logger.DIAG("Snapshot @1t", Logger.defer(() -> {
+            deferredThread.set(Thread.currentThread().getName());
+            deferredCalled.countDown();
+            return "deferred";
+        }));
+        assertTrue(deferredCalled.await(5, TimeUnit.SECONDS));
+        System.out.println("Testing Logger suppliers (" + argumentThread.get() + ", " + deferredThread.get() + ")");
+        assertEquals(Thread.currentThread().getName(), argumentThread.get());
+        assertNotEquals(Thread.currentThread().getName(), deferredThread.get());
+    }
+
+    @Test
+    void testResolveDeferred() {
+        Object[] args = new Object[] {"A", Logger.defer(() -> 42), Logger.defer(() -> { throw new IllegalStateException("X"); })};
+        LogEvent event = new LogEvent(false, Level.Info, "@1s @2t @3e", args);
+        event.resolveDeferred();
+        String message = new TextFormatter("").format(event);
+        System.out.println("Testing LogEvent.resolveDeferred (" + message + ")");
+        assertEquals("A 42 X", message);
+        assertInstanceOf(DeferredSupplier.class, args[1]); // the caller's array is not modified
+    }
+
+}
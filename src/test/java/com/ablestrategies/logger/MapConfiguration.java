@@ -0,0 +1,30 @@
+package com.ablestrategies.logger;
+
+import java.util.Map;
+
+/**
+ * MapConfiguration - An IConfiguration over a Map, for tests: the settings that the test puts in the map,
+ * with defaults for the rest.
+ */
+class MapConfiguration implements IConfiguration {
+
+    /** The settings, which the test may change at any time. */
+    private final Map<String, String> settings;
+
+    /**
+     * Ctor.
+     * @param settings The settings, by key. (not copied)
+     */
+    MapConfiguration(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    public String getString(String key, String defaultValue) {
+        return settings.getOrDefault(key, defaultValue);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return settings.containsKey(key) ? Long.parseLong(settings.get(key)) : defaultValue;
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSegmentAppenderTest {
+
+    /** Multibyte text, so chars and bytes differ. (e-acute, a CJK char, and an emoji) */
+    private static final String MULTIBYTE = "\u00e9\u4e2d\ud83d\ude00";
+
+    private File directory;
+    private final Map<String, String> settings = new HashMap<>();
+
+    private final IConfiguration configuration = new MapConfiguration(settings);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("jlogtest").toFile();
+        settings.put("jlogger.logfile.name", new File(directory, "jlog.log").getPath());
+        settings.put("jlogger.logfile.prefix", "");
+        settings.put("jlogger.logfile.kfilesize", "1");
+        settings.put("jlogger.logfile.backups", "3");
+    }
+
+    @AfterEach
+    void tearDown() {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    void testSegmentsAreTrimmed() throws IOException {
+        MappedSegmentAppender appender = new MappedSegmentAppender(configuration);
+        assertEquals(1024, new File(directory, "jlog000.log").length()); // preallocated
+        for(int i = 0; i < 50; i++) {
+            appender.append(new LogEvent(false, Level.Info, "Event @1i " + MULTIBYTE.repeat(4), new Object[] {i}));
+        }
+        appender.close();
+        File newest = new File(directory, "jlog002.log");
+        System.out.println("Testing MappedSegmentAppender trimmed segments (" + newest.length() + " bytes)");
+        List<String> lines = new ArrayList<>();
+        for(String filename : new String[] {"jlog000.log", "jlog001.log", "jlog002.log"}) {
+            File file = new File(directory, filename);
+            assertTrue(file.length() <= 1024, filename + " is " + file.length() + " bytes");
+            assertEquals(-1, Files.readString(file.toPath(), StandardCharsets.UTF_8).indexOf('\0'));
+            lines.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        }
+        assertTrue(newest.length() < 1024); // trimmed
+        lines.removeIf(line -> line.startsWith("###LogFile### "));
+        assertEquals(50, lines.size());
+        for(int i = 0; i < 50; i++) {
+            assertEquals("Event " + i + " " + MULTIBYTE.repeat(4), lines.get(i));
+        }
+    }
+
+    @Test
+    void testEventBiggerThanSegment() throws IOException {
+        MappedSegmentAppender appender = new MappedSegmentAppender(configuration);
+        String big = "x".repeat(3000);
+        appender.append(new LogEvent(false, Level.Info, "small", null));
+        appender.append(new LogEvent(false, Level.Info, big, null));
+        appender.close();
+        List<String> lines = Files.readAllLines(new File(directory, "jlog001.log").toPath(), StandardCharsets.UTF_8);
+        System.out.println("Testing MappedSegmentAppender oversized event (" + lines.size() + " lines)");
+        assertEquals(2, lines.size());
+        assertEquals(big, lines.get(1));
+    }
+
+    @Test
+    void testRetriesAfterSegmentCannotBeMapped() throws IOException {
+        long retryMillis = MappedSegmentAppender.RETRY_MILLIS;
+        MappedSegmentAppender.RETRY_MILLIS = 0;
+        try {
+            MappedSegmentAppender appender = new MappedSegmentAppender(configuration);
+            File blocker = new File(directory, "jlog001.log");
+            assertTrue(blocker.mkdir()); // so the next segment cannot be opened
+            appender.append(new LogEvent(false, Level.Info, "first", null));
+            appender.append(new LogEvent(false, Level.Info, "x".repeat(2000), null)); // rolls over, and fails
+            appender.append(new LogEvent(false, Level.Info, "dropped", null)); // retries, and fails
+            assertTrue(blocker.delete());
+            appender.append(new LogEvent(false, Level.Info, "retried", null)); // retries, and succeeds
+            appender.close();
+            List<String> lines = Files.readAllLines(new File(directory, "jlog001.log").toPath(), StandardCharsets.UTF_8);
+            System.out.println("Testing MappedSegmentAppender retry after a failed segment (" + lines + ")");
+            assertEquals(2, lines.size());
+            assertEquals("retried", lines.get(1));
+        } finally {
+            MappedSegmentAppender.RETRY_MILLIS = retryMillis;
+        }
+    }
+
+}
@@ -112,6 +112,66 @@ class ObjectDumperTest {
         assertTrue(result.contains("ArithmeticException"));
     }
 
+    @SuppressWarnings("unused")
+    private static class Dto {
+        static String category = "Static";
+        public int count = 3;
+        private final String label = "Label";
+    }
+
+    @Test
+    void testFieldDump() {
+        ObjectDumper everythingDumper = new ObjectDumper(3, 5, true);
+        String result = dumper.dump(new Dto(), "dto");
+        String resultAgain = dumper.dump(new Dto(), "dto");
+        String resultEverything = everythingDumper.dump(new Dto(), "dto");
+        printDiag(resultEverything);
+        System.out.println("Testing ObjectFormatter.dump fields (" + result.substring(0, 10) + ")");
+        assertTrue(result.contains("Integer count (public); (@"));
+        assertTrue(result.contains("String label; (@"));
+        assertFalse(result.contains("category"));
+        assertEquals(result.replaceAll("@[0-9a-f]{8}", ""), resultAgain.replaceAll("@[0-9a-f]{8}", ""));
+        assertTrue(resultEverything.contains("String category (static); (@"));
+        assertTrue(resultEverything.contains(" = Static"));
+    }
+
+    @Test
+    void testBudgetDump() {
+        Map<Integer, String> map = new HashMap<>();
+        for(int i = 0; i < 100; i++) {
+            map.put(i, "Item" + i);
+        }
+        ObjectDumper budgetDumper = new ObjectDumper(3, 100, false, 200);
+        StringBuilder buffer = new StringBuilder("Map: ");
+        budgetDumper.dump(map, "map", buffer);
+        String result = buffer.toString();
+        printDiag(result);
+        System.out.println("Testing ObjectFormatter.dump budget (" + result.length() + ")");
+        assertTrue(result.startsWith("Map: HashMap map; (@"));
+        assertTrue(result.endsWith(ObjectDumper.TRUNCATION_MARKER));
+        assertEquals("Map: ".length() + 200 + ObjectDumper.TRUNCATION_MARKER.length(), result.length());
+        assertFalse(result.contains("Item99"));
+        String unlimited = new ObjectDumper(3, 100, false, Integer.MAX_VALUE).dump(map, "map");
+        assertTrue(unlimited.contains("Item99"));
+        assertFalse(unlimited.contains(ObjectDumper.TRUNCATION_MARKER));
+    }
+
+    @Test
+    void testIdentityVisited() {
+        List<String> first = Arrays.asList("ab", "cd");
+        List<String> second = Arrays.asList("ab", "cd");
+        List<Object> cyclic = new java.util.ArrayList<>();
+        cyclic.add(first);
+        cyclic.add(second);
+        cyclic.add(first);
+        cyclic.add(cyclic);
+        String result = dumper.dump(cyclic, "cyclic");
+        printDiag(result);
+        System.out.println("Testing ObjectFormatter.dump identity visited (" + result.substring(0, 10) + ")");
+        assertEquals(2, result.split("already shown above", -1).length - 1); // first again, and cyclic
+        assertEquals(2, result.split(" = ab", -1).length - 1); // first and second, although they are equal()
+    }
+
     private void printDiag(String result) {
         if(diag) {
             System.out.println("\n################");
@@ -0,0 +1,189 @@
+package com.ablestrategies.logger;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.ablestrategies.logger.BenchmarkHarness.Blackhole;
+import static com.ablestrategies.logger.BenchmarkHarness.score;
+
+/**
+ * QueueBenchmarks - Handing events from the logging threads to the AppenderThread.
+ * <p/>
+ * The behaviour is covered by EventRingBufferTest; these only measure it.
+ */
+class QueueBenchmarks {
+
+    /** Events per queue iteration, shared among the producers. */
+    private static final int QUEUE_EVENTS = 1_000_000;
+
+    /** Round trips per wait strategy iteration. */
+    private static final int ROUND_TRIPS = 500;
+
+    /**
+     * Producers of a queue benchmark. (so that the old and new queues are run identically)
+     */
+    private interface QueueProducers {
+        void run(int producers, int eventsPerProducer, int burstSize, Blackhole blackhole)
+                throws InterruptedException;
+    }
+
+    /**
+     * Event queue: the old LinkedBlockingDeque vs. the EventRingBuffer, sustained and in bursts.
+     */
+    static void benchmarkQueue() {
+        for(int producers : new int[] {1, 8, 64}) {
+            scoreQueue("LinkedBlockingDeque sustained, " + producers + " producers",
+                    producers, 0, QueueBenchmarks::runDequeProducers);
+            scoreQueue("EventRingBuffer sustained, " + producers + " producers",
+                    producers, 0, QueueBenchmarks::runRingProducers);
+            scoreQueue("LinkedBlockingDeque bursts, " + producers + " producers",
+                    producers, 64, QueueBenchmarks::runDequeProducers);
+            scoreQueue("EventRingBuffer bursts, " + producers + " producers",
+                    producers, 64, QueueBenchmarks::runRingProducers);
+        }
+    }
+
+    /**
+     * Wait strategies: latency from publishing an event, after an idle period, until the consumer has it.
+     */
+    static void benchmarkWaitStrategies() {
+        for(WaitStrategy waitStrategy : WaitStrategy.values()) {
+            score("WaitStrategy." + waitStrategy.name(), "us latency", blackhole -> {
+                EventRingBuffer ringBuffer = new EventRingBuffer(64);
+                AtomicLong publishNanos = new AtomicLong();
+                AtomicLong latencyNanos = new AtomicLong();
+                AtomicLong taken = new AtomicLong();
+                Thread consumer = new Thread(() -> {
+                    LogEvent spare = new LogEvent();
+                    int idleCount = 0;
+                    while(taken.get() < ROUND_TRIPS) {
+                        LogEvent event = ringBuffer.take(spare);
+                        if(event == null) {
+                            waitStrategy.idle(ringBuffer, idleCount++);
+                            continue;
+                        }
+                        latencyNanos.addAndGet(System.nanoTime() - publishNanos.get());
+                        taken.incrementAndGet();
+                        spare = event;
+                        idleCount = 0;
+                    }
+                });
+                consumer.start();
+                for(int i = 1; i <= ROUND_TRIPS; i++) {
+                    LockSupport.parkNanos(200_000); // idle
+                    LogEvent event = ringBuffer.claim(Level.Info);
+                    event.populate(false, Level.Info, "Message", null);
+                    publishNanos.set(System.nanoTime());
+                    ringBuffer.publish(event);
+                    while(taken.get() < i) {
+                        Thread.yield();
+                    }
+                }
+                consumer.join();
+                return latencyNanos.get() / 1000.0 / ROUND_TRIPS;
+            });
+        }
+    }
+
+    /**
+     * Score one queue, in events per second.
+     * @param description What is being measured.
+     * @param producers Number of producer threads.
+     * @param burstSize If non-zero, pause after each burst of this many events.
+     * @param queueProducers Runs the producers and consumer.
+     */
+    private static void scoreQueue(String description, int producers, int burstSize, QueueProducers queueProducers) {
+        int eventsPerProducer = QUEUE_EVENTS / producers;
+        score(description, "Kevents/s", blackhole -> {
+            long start = System.nanoTime();
+            queueProducers.run(producers, eventsPerProducer, burstSize, blackhole);
+            return (double)producers * eventsPerProducer * 1e6 / (System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Run producers and a consumer through a LinkedBlockingDeque, as AppenderThread used to.
+     */
+    private static void runDequeProducers(int producers, int eventsPerProducer, int burstSize, Blackhole blackhole)
+            throws InterruptedException {
+        BlockingQueue<LogEvent> queue = new LinkedBlockingDeque<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                for(long i = (long)producers * eventsPerProducer; i > 0; i--) {
+                    blackhole.consume(queue.take().level.getValue());
+                }
+            } catch (InterruptedException e) {
+                // done
+            }
+        });
+        consumer.start();
+        runProducers(producers, eventsPerProducer, burstSize, () -> {
+            try {
+                queue.put(new LogEvent(false, Level.Info, "Message {}", null));
+            } catch (InterruptedException e) {
+                // lost
+            }
+        });
+        consumer.join();
+    }
+
+    /**
+     * Run producers and a consumer through an EventRingBuffer, as AppenderThread does now.
+     */
+    private static void runRingProducers(int producers, int eventsPerProducer, int burstSize, Blackhole blackhole)
+            throws InterruptedException {
+        EventRingBuffer ringBuffer = new EventRingBuffer(AppenderThread.QUEUE_CAPACITY);
+        Thread consumer = new Thread(() -> {
+            LogEvent spare = new LogEvent();
+            for(long i = (long)producers * eventsPerProducer; i > 0; i--) {
+                LogEvent event;
+                while((event = ringBuffer.take(spare)) == null) {
+                    Thread.yield();
+                }
+                blackhole.consume(event.level.getValue());
+                spare = event;
+            }
+        });
+        consumer.start();
+        runProducers(producers, eventsPerProducer, burstSize, () -> {
+            LogEvent event = ringBuffer.claim(Level.Info);
+            event.populate(false, Level.Info, "Message {}", null);
+            ringBuffer.publish(event);
+        });
+        consumer.join();
+    }
+
+    /**
+     * Start producer threads and wait for them to finish.
+     * @param producers Number of producer threads.
+     * @param eventsPerProducer Events for each to produce.
+     * @param burstSize If non-zero, pause after each burst of this many events.
+     * @param produceOne Produces one event.
+     */
+    private static void runProducers(int producers, int eventsPerProducer, int burstSize, Runnable produceOne)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(producers);
+        AtomicBoolean go = new AtomicBoolean(false);
+        for(int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                while(!go.get()) {
+                    Thread.onSpinWait();
+                }
+                for(int i = 1; i <= eventsPerProducer; i++) {
+                    produceOne.run();
+                    if(burstSize > 0 && i % burstSize == 0) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        go.set(true);
+        done.await();
+    }
+
+}
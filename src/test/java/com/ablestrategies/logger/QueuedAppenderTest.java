@@ -0,0 +1,159 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueuedAppenderTest {
+
+    private final Map<String, String> settings = new HashMap<>();
+
+    private final IConfiguration configuration = new MapConfiguration(settings);
+
+    /**
+     * An appender that formats each event and remembers it, optionally slowly, or not until a gate opens.
+     */
+    private static class RecordingAppender implements IAppender {
+
+        final TextFormatter textFormatter = new TextFormatter("");
+        final List<String> messages = new ArrayList<>();
+        final long delayMillis;
+        final CountDownLatch gate;
+        volatile boolean closed = false;
+
+        RecordingAppender(long delayMillis) {
+            this(delayMillis, null);
+        }
+
+        RecordingAppender(long delayMillis, CountDownLatch gate) {
+            this.delayMillis = delayMillis;
+            this.gate = gate;
+        }
+
+        public void append(LogEvent logEvent) {
+            if(gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if(delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(textFormatter.format(logEvent));
+        }
+
+        public boolean isCallerInfoNeeded() {
+            return false;
+        }
+
+        public void notifyShutdown() {
+
+        }
+
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void testAppendInOrder() {
+        RecordingAppender recorder = new RecordingAppender(0);
+        QueuedAppender queuedAppender = new QueuedAppender(new PropsConfiguration(), recorder, false);
+        List<LogEvent> events = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            events.add(new LogEvent(false, Level.Info, "Event @1i", new Object[] {i}));
+            if(events.size() == 10) {
+                queuedAppender.appendBatch(events);
+                events.clear();
+            }
+        }
+        queuedAppender.close();
+        System.out.println("Testing QueuedAppender in order (" + queuedAppender.getAppendedTotal() + ")");
+        assertTrue(recorder.closed);
+        assertEquals(1000, recorder.messages.size());
+        for(int i = 0; i < 1000; i++) {
+            assertEquals("Event " + i, recorder.messages.get(i));
+        }
+        assertEquals(1000, queuedAppender.getAppendedTotal());
+        assertEquals(0, queuedAppender.getBacklog());
+        assertFalse(queuedAppender.isCallerInfoNeeded());
+    }
+
+    @Test
+    void testSlowAppenderDoesNotBlock() {
+        RecordingAppender recorder = new RecordingAppender(20);
+        QueuedAppender queuedAppender = new QueuedAppender(new PropsConfiguration(), recorder, false);
+        long start = System.currentTimeMillis();
+        for(int i = 0; i < 10; i++) {
+            queuedAppender.append(new LogEvent(false, Level.Info, "Event @1i", new Object[] {i}));
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Testing QueuedAppender slow appender (" + elapsed + "ms, backlog " +
+                queuedAppender.getMaxBacklog() + ")");
+        assertTrue(elapsed < 100);
+        assertTrue(queuedAppender.getMaxBacklog() > 0);
+        queuedAppender.close();
+        assertEquals(10, recorder.messages.size());
+    }
+
+    @Test
+    void testStuckAppenderDoesNotStallOthers() throws InterruptedException {
+        settings.put("jlogger.queue.capacity", "16");
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingAppender stuck = new RecordingAppender(0, gate);
+        RecordingAppender other = new RecordingAppender(0);
+        QueuedAppender queuedAppender = new QueuedAppender(configuration, stuck, false);
+        Thread appenderThread = new Thread(() -> { // as the AppenderThread would
+            for(int i = 0; i < 1000; i++) {
+                LogEvent event = new LogEvent(false, Level.Info, "Event @1i", new Object[] {i});
+                queuedAppender.append(event);
+                other.append(event);
+            }
+        });
+        appenderThread.start();
+        appenderThread.join(5000);
+        System.out.println("Testing QueuedAppender stuck appender (" + other.messages.size() + " appended, " +
+                queuedAppender.getDroppedTotal() + " dropped)");
+        assertFalse(appenderThread.isAlive());
+        assertEquals(1000, other.messages.size());
+        assertTrue(queuedAppender.getDroppedTotal() > 0);
+        long start = System.currentTimeMillis();
+        queuedAppender.close(); // gives up on it
+        assertTrue(System.currentTimeMillis() - start < QueuedAppender.CLOSE_WAIT_MILLIS + 1000);
+        assertFalse(stuck.closed);
+        gate.countDown(); // once unstuck, our thread drains the queue, reports the drops, and closes it
+        for(int wait = 0; wait < 200 && !stuck.closed; wait++) {
+            Thread.sleep(10);
+        }
+        assertTrue(stuck.closed);
+        assertEquals(1000, queuedAppender.getAppendedTotal() + queuedAppender.getDroppedTotal());
+        assertTrue(stuck.messages.get(stuck.messages.size() - 1).contains("dropped"));
+    }
+
+    @Test
+    void testSharedFormattersCache() {
+        LogEvent original = new LogEvent(false, Level.Info, "ABC", null);
+        LogEvent copy = new LogEvent();
+        copy.copySharingCacheFrom(original);
+        int slot = LogManager.registerFormatter("QueuedAppenderTest:Signature");
+        original.putFormattersCache(slot, "Formatted");
+        System.out.println("Testing LogEvent.copySharingCacheFrom (" + copy.getFormattersCache(slot) + ")");
+        assertEquals("Formatted", copy.getFormattersCache(slot));
+        original.release(); // a shared cache is replaced, not cleared
+        assertNull(original.getFormattersCache(slot));
+        assertEquals("Formatted", copy.getFormattersCache(slot));
+    }
+
+}
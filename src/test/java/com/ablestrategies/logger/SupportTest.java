@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class SupportTest {
 
@@ -23,4 +24,28 @@ class SupportTest {
         System.out.println("Testing Support.abbreviate (" + s1out + ")");
         assertEquals("a.d.g.j.m.pq.st.", s1out);
     }
-}
\ No newline at end of file
+
+    @Test
+    void assembleCallerPath() {
+        LogEvent event = new LogEvent(false, Level.Info, "", null);
+        event.className = "com.ablestrategies.example.service.OrderService";
+        event.methodName = "placeOrder";
+        LogEventStringGetter getter = new LogEventStringGetter(event);
+        String path = Support.assembleCallerPath(getter, true, true, true);
+        System.out.println("Testing Support.assembleCallerPath (" + path + ")");
+        String packageName = Support.abbreviate("com.ablestrategies.example.service.");
+        assertEquals(packageName + "OrderService.placeOrder", path);
+        assertSame(path, Support.assembleCallerPath(getter, true, true, true));
+        assertEquals("com.ablestrategies.example.service.OrderService.placeOrder",
+                Support.assembleCallerPath(getter, true, true, false));
+        assertEquals("OrderService.placeOrder", Support.assembleCallerPath(getter, false, true, true));
+        assertEquals("placeOrder", Support.assembleCallerPath(getter, false, false, true));
+        int cacheSize = Support.CALLER_PATH_CACHE_SIZE;
+        Support.CALLER_PATH_CACHE_SIZE = 10;
+        for(int i = 0; i < 50; i++) {
+            event.methodName = "method" + i;
+            assertEquals(packageName + "OrderService.method" + i, Support.assembleCallerPath(getter, true, true, true));
+        }
+        Support.CALLER_PATH_CACHE_SIZE = cacheSize;
+    }
+}
@@ -3,6 +3,7 @@ package com.ablestrategies.logger;
 import org.junit.jupiter.api.BeforeEach;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +40,20 @@ class TextFormatterTest {
             "[PREFIX] ABC EXC Test 1024 -1.234 T Level[name=Diag, value=2] 20"));
     }
 
+    @org.junit.jupiter.api.Test
+    void testPrimitiveArguments() {
+        LogEvent event2 = new LogEvent(false, Level.Diag, "@1i @1h @2f @3b {1} {2} {3} @4t @1f", null);
+        event2.setLongArgument(1, 255);
+        event2.setDoubleArgument(2, -1.5);
+        event2.setBooleanArgument(3, true);
+        event2.setLongArgument(4, -7);
+        String message = textFormatter.format(event2);
+        System.out.println("Testing TextFormatter.format testPrimitiveArguments (" + message + ")");
+        assertEquals("[PREFIX] 255 ff -1.5 T 255 -1.5 true -7 (null)", message);
+        assertEquals(255L, new LogEventTypedGetter(event2).getLongArgument(1));
+        assertEquals(-1.5, new LogEventTypedGetter(event2).getDoubleArgument(2));
+    }
+
     @org.junit.jupiter.api.Test
     void testBracesSymbols() {
         LogEvent event2 = new LogEvent(Level.Diag, "{} {} {} {} {} {7} {6}",
@@ -49,4 +64,132 @@ class TextFormatterTest {
                 "[PREFIX] Xyz 123 7.5 Level[name=Diag, value=2] false 33 java.lang.Arithmetic"));
     }
 
-}
\ No newline at end of file
+    @org.junit.jupiter.api.Test
+    void testEventSymbols() {
+        TextFormatter formatter = new TextFormatter("[@L] @h: ");
+        LogEvent event2 = new LogEvent(false, Level.Warn, "x@@y.com {{1} @l", null);
+        String message = formatter.format(event2);
+        System.out.println("Testing TextFormatter.format testEventSymbols (" + message + ")");
+        assertEquals("[Warn] " + Thread.currentThread().getName() + ": x@y.com {1} 4", message);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCorruptSymbols() {
+        LogEvent event2 = new LogEvent(false, Level.Warn, "A {x B @", null);
+        String message = textFormatter.format(event2);
+        System.out.println("Testing TextFormatter.format testCorruptSymbols (" + message + ")");
+        assertEquals("[PREFIX] A ??? B ???", message);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBracesAfterPrefix() {
+        TextFormatter formatter = new TextFormatter("{} ");
+        LogEvent event2 = new LogEvent(false, Level.Warn, "{} {}", new Object[] {"A", "B", "C"});
+        String message = formatter.format(event2);
+        System.out.println("Testing TextFormatter.format testBracesAfterPrefix (" + message + ")");
+        assertEquals("A B C", message);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNestedFormatting() {
+        LogEvent innerEvent = new LogEvent(false, Level.Info, "inner {}", new Object[] {"X"});
+        Object nestedArg = new Object() {
+            public String toString() {
+                StringBuilder buffer = new StringBuilder();
+                textFormatter.formatTo(innerEvent, buffer); // same thread, so the same getter
+                return "(" + buffer + ")";
+            }
+        };
+        LogEvent event2 = new LogEvent(false, Level.Info, "outer {} {}", new Object[] {nestedArg, "after"});
+        String message = textFormatter.format(event2);
+        System.out.println("Testing TextFormatter.format testNestedFormatting (" + message + ")");
+        assertEquals("[PREFIX] outer ([PREFIX] inner X) after", message);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testTemplateCache() {
+        int cacheSize = TextFormatter.TEMPLATE_CACHE_SIZE;
+        TextFormatter.TEMPLATE_CACHE_SIZE = 2;
+        TextFormatter formatter = new TextFormatter("");
+        TextFormatter.TEMPLATE_CACHE_SIZE = cacheSize;
+        TextTemplate templateA = formatter.getMessageTemplate("A @1i");
+        System.out.println("Testing TextFormatter template cache");
+        assertSame(templateA, formatter.getMessageTemplate("A @1i"));
+        formatter.getMessageTemplate("B @1i");
+        formatter.getMessageTemplate("A @1i"); // B has not been used since it was compiled, so it goes first
+        formatter.getMessageTemplate("C @1i");
+        assertSame(templateA, formatter.getMessageTemplate("A @1i"));
+        assertEquals("A 7", formatter.format(new LogEvent(false, Level.Warn, "A @1i", new Object[] {7})));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testTemplateCacheFromManyThreads() throws InterruptedException {
+        int cacheSize = TextFormatter.TEMPLATE_CACHE_SIZE;
+        TextFormatter.TEMPLATE_CACHE_SIZE = 16;
+        TextFormatter formatter = new TextFormatter("");
+        TextFormatter.TEMPLATE_CACHE_SIZE = cacheSize;
+        AtomicInteger wrong = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> { // 100 messages through 16 slots, so it keeps evicting
+                for(int i = 0; i < 5000; i++) {
+                    int n = (i * 7) % 100;
+                    String message = formatter.format(new LogEvent(false, Level.Warn, "M" + n + " @1i", new Object[] {i}));
+                    if(!message.equals("M" + n + " " + i)) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("Testing TextFormatter template cache from many threads (" + wrong.get() + " wrong)");
+        assertEquals(0, wrong.get());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSharedResultCache() {
+        TextFormatter formatter1 = new TextFormatter("[SHARED] ");
+        TextFormatter formatter2 = new TextFormatter("[SHARED] ");
+        TextFormatter formatter3 = new TextFormatter("[OTHER] ");
+        LogEvent event2 = new LogEvent(false, Level.Warn, "X @1i", new Object[] {1});
+        String message = formatter1.format(event2);
+        System.out.println("Testing TextFormatter shared result cache (" + message + ")");
+        assertSame(message, formatter2.format(event2));
+        assertEquals("[OTHER] X 1", formatter3.format(event2));
+        assertEquals(LogManager.registerFormatter(TextFormatter.class.getName() + ":[SHARED] :dontCare"),
+                LogManager.registerFormatter(TextFormatter.class.getName() + ":[SHARED] :dontCare"));
+        event2.populate(false, Level.Warn, "Y", null);
+        assertEquals("[SHARED] Y", formatter2.format(event2));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReferencesCallerInfo() {
+        System.out.println("Testing TextFormatter.referencesCallerInfo");
+        assertTrue(TextFormatter.referencesCallerInfo("@t @c [@L]: "));
+        assertTrue(TextFormatter.referencesCallerInfo("@P: "));
+        assertFalse(TextFormatter.referencesCallerInfo("@t [@L]: "));
+        assertFalse(TextFormatter.referencesCallerInfo("email@@company.com "));
+        assertFalse(TextFormatter.referencesCallerInfo("trailing @"));
+        assertFalse(new TextFormatter("[PREFIX] ").isCallerInfoNeeded());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testMatchesLegacyParser() {
+        System.out.println("Testing TextFormatter against the legacy parser");
+        // (only argument symbols: the legacy parser skipped a character after each event symbol such as @L)
+        String[] prefixes = {"[PREFIX] ", "{} ", ""};
+        String[] messages = {"Processed {} records for {} in @3i ms", "ABC @1s @3i {}", "@2s then {}", "plain"};
+        Object[] args = {"12345", "customer", 17};
+        for(String prefix : prefixes) {
+            TextFormatter formatter = new TextFormatter(prefix);
+            LegacyTextFormatter legacyFormatter = new LegacyTextFormatter(prefix);
+            for(String message : messages) {
+                LogEvent event2 = new LogEvent(true, Level.Info, message, args);
+                assertEquals(legacyFormatter.format(event2), formatter.format(event2), prefix + message);
+            }
+        }
+    }
+}
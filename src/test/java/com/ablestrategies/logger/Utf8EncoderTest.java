@@ -0,0 +1,38 @@
+package com.ablestrategies.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8EncoderTest {
+
+    private static byte[] toArray(ByteBuffer bytes) {
+        return Arrays.copyOfRange(bytes.array(), bytes.position(), bytes.limit());
+    }
+
+    @Test
+    void testEncode() {
+        Utf8Encoder encoder = new Utf8Encoder(16);
+        String[] texts = {"", "Plain ASCII text", "Caf\u00e9 \u00fcber \u00b5s", "\u20ac100 \u65e5\u672c\u8a9e",
+                "Emoji \ud83d\ude00 done", "Lone \ud83d surrogate", "x".repeat(1000) + "\u00e9".repeat(1000)};
+        for(String text : texts) {
+            byte[] encoded = toArray(encoder.encode(text));
+            assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), encoded, text);
+        }
+        System.out.println("Testing Utf8Encoder.encode (" + new String(toArray(encoder.encode(texts[4])), StandardCharsets.UTF_8) + ")");
+    }
+
+    @Test
+    void testEncodePart() {
+        Utf8Encoder encoder = new Utf8Encoder(16);
+        StringBuilder buffer = new StringBuilder("abc\u00e9def");
+        System.out.println("Testing Utf8Encoder.encode part");
+        assertArrayEquals("c\u00e9d".getBytes(StandardCharsets.UTF_8), toArray(encoder.encode(buffer, 2, 5)));
+        assertSame(encoder.encode(buffer, 0, 1), encoder.encode(buffer, 0, 2)); // re-used
+    }
+
+}